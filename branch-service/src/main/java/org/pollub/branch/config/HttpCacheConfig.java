@@ -0,0 +1,64 @@
+package org.pollub.branch.config;
+
+import lombok.RequiredArgsConstructor;
+import org.pollub.common.cache.InvalidationBus;
+import org.pollub.common.web.ConditionalGetInterceptor;
+import org.pollub.common.web.ResourceVersions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Conditional GET (ETag / If-None-Match) for the branch directory.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class HttpCacheConfig implements WebMvcConfigurer {
+
+    /**
+     * Branch directory; bumped on every branch create, update and delete.
+     */
+    public static final String BRANCHES = "branches";
+
+    private static final String INVALIDATION_CHANNEL = "branch_invalidation";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final DataSourceProperties dataSourceProperties;
+
+    @Value("${http-cache.max-age:60s}")
+    private Duration maxAge;
+
+    @Value("${http-cache.version-refresh:2s}")
+    private Duration versionRefresh;
+
+    @Bean
+    public InvalidationBus invalidationBus() {
+        // The bus keeps its LISTEN connection open for good, so it connects outside the Hikari pool
+        DataSource direct = dataSourceProperties.initializeDataSourceBuilder().type(SimpleDriverDataSource.class).build();
+        return new InvalidationBus(dataSource, direct, INVALIDATION_CHANNEL);
+    }
+
+    @Bean
+    public ResourceVersions resourceVersions() {
+        return new ResourceVersions(jdbcTemplate, versionRefresh, List.of(BRANCHES), invalidationBus());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Employees come from user-service, so they are not covered by the branch version
+        registry.addInterceptor(new ConditionalGetInterceptor(resourceVersions(),
+                        CacheControl.maxAge(maxAge).cachePublic(), BRANCHES))
+                .addPathPatterns("/api/branches", "/api/branches/*", "/api/branches/number/*");
+    }
+}
@@ -1,5 +1,7 @@
 package org.pollub.branch.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.pollub.branch.model.LibraryBranch;
@@ -7,10 +9,13 @@ import org.pollub.branch.model.dto.BranchCreateDto;
 import org.pollub.branch.service.BranchService;
 import org.pollub.common.dto.BranchDto;
 import org.pollub.common.dto.UserDto;
+import org.pollub.common.web.NdjsonStreams;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -21,6 +26,7 @@ import java.util.stream.Collectors;
 public class BranchController {
     
     private final BranchService branchService;
+    private final ObjectMapper objectMapper;
     
     @GetMapping
     public ResponseEntity<List<BranchDto>> getAllBranches() {
@@ -29,6 +35,15 @@ public class BranchController {
                 .toList();
         return ResponseEntity.ok(branches);
     }
+
+    /**
+     * Streaming variant of the branch list, selected by Accept: application/x-ndjson.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamAllBranches(HttpServletResponse response) throws IOException {
+        NdjsonStreams.<BranchDto>write(response, objectMapper,
+                sink -> branchService.forEachBranch(branch -> sink.accept(toDto(branch))));
+    }
     
     @GetMapping("/{id}")
     public ResponseEntity<BranchDto> getBranchById(@PathVariable Long id) {
@@ -1,13 +1,17 @@
 package org.pollub.branch.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.pollub.branch.model.LibraryBranch;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BranchRepository extends JpaRepository<LibraryBranch, Long> {
@@ -20,4 +24,11 @@ public interface BranchRepository extends JpaRepository<LibraryBranch, Long> {
            "LOWER(b.address) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
            "LOWER(b.branchNumber) LIKE LOWER(CONCAT('%', :query, '%'))")
     List<LibraryBranch> searchBranches(@Param("query") String query);
+
+    // All branches in id order, fetched from a database cursor; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<LibraryBranch> streamAllByOrderByIdAsc();
 }
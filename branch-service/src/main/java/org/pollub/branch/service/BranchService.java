@@ -1,16 +1,21 @@
 package org.pollub.branch.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.pollub.branch.client.UserServiceClient;
+import org.pollub.branch.config.HttpCacheConfig;
 import org.pollub.branch.model.LibraryBranch;
 import org.pollub.branch.model.dto.BranchCreateDto;
 import org.pollub.branch.repository.BranchRepository;
 import org.pollub.common.dto.UserDto;
 import org.pollub.common.exception.ResourceNotFoundException;
+import org.pollub.common.web.ResourceVersions;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -19,10 +24,22 @@ public class BranchService {
     
     private final BranchRepository branchRepository;
     private final UserServiceClient userServiceClient;
+    private final ResourceVersions resourceVersions;
+    private final EntityManager entityManager;
     
     public List<LibraryBranch> getAllBranches() {
         return branchRepository.findAll();
     }
+
+    @Transactional(readOnly = true)
+    public void forEachBranch(Consumer<LibraryBranch> action) {
+        try (Stream<LibraryBranch> branches = branchRepository.streamAllByOrderByIdAsc()) {
+            branches.forEach(branch -> {
+                action.accept(branch);
+                entityManager.detach(branch);
+            });
+        }
+    }
     
     public LibraryBranch getBranchById(Long id) {
         return branchRepository.findById(id)
@@ -53,6 +70,7 @@ public class BranchService {
                 .email(dto.getEmail())
                 .openingHours(dto.getOpeningHours())
                 .build();
+        resourceVersions.bump(HttpCacheConfig.BRANCHES);
         return branchRepository.save(branch);
     }
     
@@ -67,6 +85,7 @@ public class BranchService {
         branch.setPhone(dto.getPhone());
         branch.setEmail(dto.getEmail());
         branch.setOpeningHours(dto.getOpeningHours());
+        resourceVersions.bump(HttpCacheConfig.BRANCHES);
         return branchRepository.save(branch);
     }
     
@@ -75,6 +94,7 @@ public class BranchService {
             throw new ResourceNotFoundException("LibraryBranch", id);
         }
         branchRepository.deleteById(id);
+        resourceVersions.bump(HttpCacheConfig.BRANCHES);
     }
     
     /**
@@ -0,0 +1,44 @@
+package org.pollub.catalog.config;
+
+import org.pollub.common.cache.InvalidationBus;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * Enables the Caffeine-backed caches declared under spring.cache in application.yml.
+ * Hit/miss/eviction counts are published by Spring Boot as cache.* Micrometer metrics.
+ * Evictions are sent to the other replicas over the invalidation bus.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Genre and publisher dictionaries; cleared after every item write commits (BookFacetsEvictor).
+     */
+    public static final String BOOK_FACETS = "bookFacets";
+
+    private static final String INVALIDATION_CHANNEL = "catalog_invalidation";
+
+    @Bean
+    public InvalidationBus invalidationBus(DataSource dataSource, DataSourceProperties dataSourceProperties,
+                                           CacheManager cacheManager) {
+        // The bus keeps its LISTEN connection open for good, so it connects outside the Hikari pool
+        DataSource direct = dataSourceProperties.initializeDataSourceBuilder().type(SimpleDriverDataSource.class).build();
+        InvalidationBus bus = new InvalidationBus(dataSource, direct, INVALIDATION_CHANNEL);
+        bus.subscribe(BOOK_FACETS, key -> {
+            Cache cache = cacheManager.getCache(BOOK_FACETS);
+            if (cache != null) {
+                cache.clear();
+            }
+        });
+        return bus;
+    }
+}
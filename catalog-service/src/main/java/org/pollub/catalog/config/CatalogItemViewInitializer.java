@@ -0,0 +1,33 @@
+package org.pollub.catalog.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.pollub.catalog.repository.ICatalogItemViewRepository;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Brings the catalog_item_view read model in line with the item tables on startup:
+ * creates rows for items written before the view existed (or by DataInitializer)
+ * and removes rows of items that are gone.
+ */
+@Component
+@Order(4)
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogItemViewInitializer implements CommandLineRunner {
+
+    private final TransactionTemplate transactionTemplate;
+    private final ICatalogItemViewRepository itemViewRepository;
+
+    @Override
+    public void run(String... args) {
+        transactionTemplate.executeWithoutResult(status -> {
+            int added = itemViewRepository.refreshMissing();
+            int removed = itemViewRepository.removeOrphans();
+            log.info("Catalog read model ready, {} items added, {} removed.", added, removed);
+        });
+    }
+}
@@ -0,0 +1,33 @@
+package org.pollub.catalog.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.pollub.catalog.repository.ICatalogChangeRepository;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Creates the change log version sequence (Hibernate cannot declare it) and adds entries for
+ * items and copies written before the log existed, so syncing from version 0 yields the whole catalog.
+ */
+@Component
+@Order(5)
+@RequiredArgsConstructor
+@Slf4j
+public class ChangeLogInitializer implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ICatalogChangeRepository changeRepository;
+
+    @Override
+    public void run(String... args) {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS catalog_change_version_seq");
+
+        Integer added = transactionTemplate.execute(status -> changeRepository.backfillMissing());
+        log.info("Catalog change log ready, {} entries added.", added);
+    }
+}
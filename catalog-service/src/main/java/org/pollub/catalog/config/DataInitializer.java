@@ -9,6 +9,7 @@ import org.pollub.catalog.model.ItemType;
 import org.pollub.catalog.repository.IBranchInventoryRepository;
 import org.pollub.catalog.repository.IBookRepository;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
@@ -16,6 +17,7 @@ import java.util.Arrays;
 import java.util.List;
 
 @Component
+@Order(1)
 @RequiredArgsConstructor
 @Slf4j
 public class DataInitializer implements CommandLineRunner {
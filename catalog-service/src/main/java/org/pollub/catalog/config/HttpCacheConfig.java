@@ -0,0 +1,94 @@
+package org.pollub.catalog.config;
+
+import lombok.RequiredArgsConstructor;
+import org.pollub.common.cache.InvalidationBus;
+import org.pollub.common.web.ConditionalGetInterceptor;
+import org.pollub.common.web.ResourceVersions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Conditional GET (ETag / If-None-Match) for public catalog reads.
+ * Book endpoints depend only on catalog content; item endpoints also show availability,
+ * so their ETag includes the inventory version as well. Item endpoints answered from the availability
+ * index also carry the change log version the index has applied: the inventory version moves at commit,
+ * the index a moment later, and a body read from the index in between must not keep the final tag.
+ * For the same reason item endpoints carry the version the catalog snapshot has applied.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class HttpCacheConfig implements WebMvcConfigurer {
+
+    /**
+     * Items and books; bumped on every create, update, delete and import.
+     */
+    public static final String CATALOG = "catalog";
+
+    /**
+     * Copies and their status; bumped on every inventory transition.
+     */
+    public static final String INVENTORY = "inventory";
+
+    /**
+     * Change log version applied by the availability index; kept in memory, registered by AvailabilityIndexService.
+     */
+    public static final String AVAILABILITY = "availability";
+
+    /**
+     * Change log version applied by the catalog snapshot; kept in memory, registered by CatalogSnapshotService.
+     * Stays 0 when the snapshot is disabled.
+     */
+    public static final String SNAPSHOT = "snapshot";
+
+    private static final String[] AVAILABILITY_INDEX_PATHS = {
+            "/api/items/available", "/api/items/available/**", "/api/items/rented",
+            "/api/items/branch/*/available", "/api/items/book/search"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InvalidationBus invalidationBus;
+
+    @Value("${http-cache.max-age:10s}")
+    private Duration maxAge;
+
+    @Value("${http-cache.version-refresh:2s}")
+    private Duration versionRefresh;
+
+    @Bean
+    public ResourceVersions resourceVersions() {
+        return new ResourceVersions(jdbcTemplate, versionRefresh, List.of(CATALOG, INVENTORY), invalidationBus);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        CacheControl cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+        ResourceVersions versions = resourceVersions();
+
+        registry.addInterceptor(new ConditionalGetInterceptor(versions, cacheControl, CATALOG))
+                .addPathPatterns("/api/items/book", "/api/items/book/**")
+                .excludePathPatterns("/api/items/book/*/availability", "/api/items/book/availability/**",
+                        "/api/items/book/search");
+
+        registry.addInterceptor(new ConditionalGetInterceptor(versions, cacheControl, CATALOG, INVENTORY, SNAPSHOT))
+                .addPathPatterns("/api/items", "/api/items/*", "/api/items/branch/**",
+                        "/api/items/*/available-branches", "/api/items/book/*/availability")
+                // Suggestions come from an index that may lag the versions by a refresh interval
+                .excludePathPatterns("/api/items/book", "/api/items/import/**", "/api/items/suggest")
+                // Not public, so never cacheable by shared caches
+                .excludePathPatterns("/api/items/changes")
+                .excludePathPatterns(AVAILABILITY_INDEX_PATHS);
+
+        // Book search joins here because its responses can carry availability facets
+        registry.addInterceptor(new ConditionalGetInterceptor(versions, cacheControl,
+                        CATALOG, INVENTORY, AVAILABILITY, SNAPSHOT))
+                .addPathPatterns(AVAILABILITY_INDEX_PATHS);
+    }
+}
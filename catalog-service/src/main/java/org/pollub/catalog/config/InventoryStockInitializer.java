@@ -0,0 +1,51 @@
+package org.pollub.catalog.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.pollub.catalog.repository.IBranchStockRepository;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Moves existing databases to the multi-copy inventory model: drops the old one-copy-per-branch
+ * unique constraint on branch_inventory (Hibernate's schema update never drops constraints)
+ * and creates branch_stock counts for item/branch pairs that do not have them yet.
+ * Runs after DataInitializer so seeded copies are counted too.
+ */
+@Component
+@Order(2)
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryStockInitializer implements CommandLineRunner {
+
+    private static final String DROP_SINGLE_COPY_CONSTRAINT = """
+            DO $$
+            DECLARE legacy text;
+            BEGIN
+                SELECT c.conname INTO legacy
+                FROM pg_constraint c
+                WHERE c.conrelid = 'branch_inventory'::regclass
+                  AND c.contype = 'u'
+                  AND (SELECT array_agg(a.attname::text ORDER BY a.attname::text)
+                       FROM pg_attribute a
+                       WHERE a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)) = ARRAY['branch_id', 'item_id'];
+                IF legacy IS NOT NULL THEN
+                    EXECUTE format('ALTER TABLE branch_inventory DROP CONSTRAINT %I', legacy);
+                END IF;
+            END $$""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final IBranchStockRepository stockRepository;
+
+    @Override
+    public void run(String... args) {
+        jdbcTemplate.execute(DROP_SINGLE_COPY_CONSTRAINT);
+
+        Integer created = transactionTemplate.execute(status -> stockRepository.backfillMissing());
+        log.info("Branch stock counts ready, {} item/branch pairs added.", created);
+    }
+}
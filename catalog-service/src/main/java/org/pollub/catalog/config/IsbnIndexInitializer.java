@@ -0,0 +1,69 @@
+package org.pollub.catalog.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.pollub.catalog.utils.IsbnNormalizer;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills in the canonical isbn13 column of books written before it existed.
+ * The check digit arithmetic lives in IsbnNormalizer, so the values are computed here rather than in SQL.
+ * Books whose ISBN is not valid keep a null isbn13 and are only found by their ISBN as stored.
+ * Once backfilled, the canonical ISBN is made unique. Book writes reject a second book with the same
+ * ISBN, and the catalog import names this index as its conflict target, so it fails instead of importing
+ * duplicates while the index is missing.
+ */
+@Component
+@Order(6)
+@RequiredArgsConstructor
+@Slf4j
+public class IsbnIndexInitializer implements CommandLineRunner {
+
+    public static final String ISBN_KEY_INDEX = "idx_books_isbn_key";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        long backfilled = 0;
+        long lastId = 0;
+        List<Object[]> updates = new ArrayList<>();
+        while (true) {
+            // Keyset batches: a page of ids, then its updates, so memory stays bounded by the batch
+            List<Long> ids = new ArrayList<>();
+            updates.clear();
+            jdbcTemplate.query("SELECT id, isbn FROM books WHERE isbn13 IS NULL AND id > ? ORDER BY id LIMIT ?", rs -> {
+                ids.add(rs.getLong(1));
+                String isbn13 = IsbnNormalizer.toIsbn13(rs.getString(2));
+                if (isbn13 != null) {
+                    updates.add(new Object[]{isbn13, rs.getLong(1)});
+                }
+            }, lastId, BATCH_SIZE);
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE books SET isbn13 = ? WHERE id = ?", updates);
+                backfilled += updates.size();
+            }
+            if (ids.size() < BATCH_SIZE) {
+                break;
+            }
+            lastId = ids.getLast();
+        }
+        log.info("ISBN-13 index ready, {} books backfilled.", backfilled);
+
+        try {
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + ISBN_KEY_INDEX + " ON books ((coalesce(isbn13, isbn)))");
+        } catch (DataAccessException e) {
+            log.error("Could not create unique ISBN index, catalog imports fail until books sharing an ISBN are merged: {}",
+                    e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.pollub.catalog.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.pollub.catalog.repository.ICatalogSearchRepository;
+import org.pollub.catalog.repository.SearchFoldingRepository;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Creates the full-text search column and GIN index on library_items, the folded text column
+ * for fuzzy search, plus the pg_trgm indexes used by book substring and fuzzy search
+ * (Hibernate cannot declare any of these),
+ * and fills in search documents for items that lack one.
+ * Runs after DataInitializer so seeded books are indexed too.
+ */
+@Component
+@Order(3)
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexInitializer implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ICatalogSearchRepository searchRepository;
+    private final SearchFoldingRepository foldingRepository;
+
+    @Override
+    public void run(String... args) {
+        jdbcTemplate.execute("ALTER TABLE library_items ADD COLUMN IF NOT EXISTS search_vector tsvector");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_library_items_search_vector " +
+                "ON library_items USING GIN (search_vector)");
+        jdbcTemplate.execute("ALTER TABLE library_items ADD COLUMN IF NOT EXISTS search_folded text");
+
+        createTrigramIndexes();
+
+        Integer indexed = transactionTemplate.execute(status -> searchRepository.refreshMissingSearchVectors());
+        Integer folded = transactionTemplate.execute(status -> foldingRepository.refreshMissing());
+        log.info("Full-text search index ready, {} items (re)indexed, {} folded.", indexed, folded);
+    }
+
+    private void createTrigramIndexes() {
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_library_items_title_trgm " +
+                    "ON library_items USING GIN (lower(title) gin_trgm_ops)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_books_author_trgm " +
+                    "ON books USING GIN (lower(author) gin_trgm_ops)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_library_items_search_folded_trgm " +
+                    "ON library_items USING GIN (search_folded gin_trgm_ops)");
+        } catch (Exception e) {
+            // Book search still works without these, it just falls back to sequential scans;
+            // fuzzy search needs the extension for its operators
+            log.warn("Could not create pg_trgm indexes for book and fuzzy search: {}", e.getMessage());
+        }
+    }
+}
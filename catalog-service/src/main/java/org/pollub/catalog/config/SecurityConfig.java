@@ -46,8 +46,11 @@ public class SecurityConfig {
             .sessionManagement(session -> session
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // The change feed carries who holds each copy: other services and admins only
+                .requestMatchers(HttpMethod.GET, "/api/items/changes").hasAnyRole("INTERNAL_SERVICE", "ADMIN")
                 // Public: catalog queries (read only)
                 .requestMatchers(HttpMethod.GET, "/api/items/**").permitAll()
+                .requestMatchers(HttpMethod.POST, "/api/items/book/availability/batch").permitAll()
                 .requestMatchers("/actuator/**").permitAll()
                 // All other endpoints require authentication
                 .anyRequest().authenticated()
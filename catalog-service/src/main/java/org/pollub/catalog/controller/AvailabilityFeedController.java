@@ -0,0 +1,25 @@
+package org.pollub.catalog.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.pollub.catalog.service.IAvailabilityFeedService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/items/availability")
+@RequiredArgsConstructor
+public class AvailabilityFeedController {
+
+    private final IAvailabilityFeedService availabilityFeedService;
+
+    /**
+     * Stream copy status changes (rent, return, reserve, cancel, update-status) as server-sent events
+     * named "inventory". Give itemId, branchId, or both to watch an item at one branch.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) Long itemId,
+                                    @RequestParam(required = false) Long branchId) {
+        return availabilityFeedService.subscribe(itemId, branchId);
+    }
+}
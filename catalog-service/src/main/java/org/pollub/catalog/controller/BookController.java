@@ -1,26 +1,40 @@
 package org.pollub.catalog.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.pollub.catalog.model.Book;
 import org.pollub.catalog.model.ItemStatus;
 import org.pollub.catalog.model.dto.BookAvailabilityDto;
 import org.pollub.catalog.model.dto.BookCreateDto;
+import org.pollub.catalog.model.dto.CursorPage;
+import org.pollub.catalog.model.dto.FacetedPage;
+import org.pollub.catalog.model.dto.ItemAvailabilityDto;
+import org.pollub.catalog.model.dto.SearchFacetsDto;
 import org.pollub.catalog.service.IBookService;
+import org.pollub.common.web.NdjsonStreams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/items/book")
 @RequiredArgsConstructor
 public class BookController {
+    private static final int MAX_PAGE_SIZE = 16;
+    private static final int MAX_LIST_SIZE = 20;
+    private static final String SUMMARY_VIEW = "summary";
+
     private final IBookService bookService;
+    private final ObjectMapper objectMapper;
     private final Logger log = LoggerFactory.getLogger(BookController.class);
 
     @GetMapping
@@ -28,15 +42,37 @@ public class BookController {
         return bookService.findAll();
     }
 
+    /**
+     * Streaming variant of the book list, selected by Accept: application/x-ndjson.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamAllBooks(HttpServletResponse response) throws IOException {
+        NdjsonStreams.write(response, objectMapper, bookService::forEachBook);
+    }
+
+    /**
+     * Page through all books. Sending cursor (empty for the first page) switches to keyset pages,
+     * with no COUNT query unless includeTotal is set; view=summary reads and serializes only the
+     * columns catalog grids show, full detail stays on /{id}.
+     */
     @GetMapping("/pagination")
-    public Page<Book> getBooks(
+    public ResponseEntity<?> getBooks(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "16") int size) {
-
-        if (size > 16) {
-            size = 16;
+            @RequestParam(defaultValue = "16") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(required = false) String view) {
+
+        size = limitPageSize(size);
+        boolean summary = isSummary(view);
+        if (cursor != null) {
+            return ResponseEntity.ok(summary
+                    ? bookService.getBookSummariesAfter(cursor, size, includeTotal)
+                    : bookService.getBooksAfter(cursor, size, includeTotal));
         }
-        return bookService.getBooksPaginated(page, size);
+        return ResponseEntity.ok(summary
+                ? bookService.getBookSummariesPaginated(page, size)
+                : bookService.getBooksPaginated(page, size));
     }
 
     @PostMapping
@@ -85,23 +121,48 @@ public class BookController {
         return ResponseEntity.ok("Book deleted");
     }
 
+    /**
+     * Search books, with the same cursor, includeTotal and view parameters as /pagination.
+     * facets=true adds facet counts over all matches, to offset and keyset pages alike.
+     */
     @GetMapping("/search")
-    public ResponseEntity<Page<Book>> searchBooks(
+    public ResponseEntity<?> searchBooks(
             @RequestParam(required = false) String query,
             @RequestParam(required = false) ItemStatus status,
             @RequestParam(required = false) String publisher,
-            @RequestParam(required = false) String genres,
+            @RequestParam(required = false) List<String> genres,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "16") int size,
-            @RequestParam(required = false) String sort
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(required = false) String view,
+            @RequestParam(defaultValue = "false") boolean facets
     ) {
-        if (size > 16) {
-            size = 16;
-        }
+        size = limitPageSize(size);
         this.log.debug("Searching books with query: {}, status: {}, publisher: {}, genres: {}, page: {}, size: {}, sort: {}",
                 query, status, publisher, genres, page, size, sort);
-        return ResponseEntity.ok(bookService.searchBooks(query, status, publisher, genres, page, size, sort));
+        boolean summary = isSummary(view);
+
+        if (cursor != null) {
+            CursorPage<?> results = summary
+                    ? bookService.searchBookSummariesAfter(query, status, publisher, genres, cursor, size, sort, includeTotal)
+                    : bookService.searchBooksAfter(query, status, publisher, genres, cursor, size, sort, includeTotal);
+            if (facets) {
+                results.setFacets(bookService.searchFacets(query, status, publisher, genres));
+            }
+            return ResponseEntity.ok(results);
+        }
+
+        Page<?> results = summary
+                ? bookService.searchBookSummaries(query, status, publisher, genres, page, size, sort)
+                : bookService.searchBooks(query, status, publisher, genres, page, size, sort);
+        if (facets) {
+            return ResponseEntity.ok(withFacets(results, bookService.searchFacets(query, status, publisher, genres)));
+        }
+        return ResponseEntity.ok(results);
     }
+
     @GetMapping("/genres")
     public ResponseEntity<List<String>> getTopGenres() {
         return ResponseEntity.ok(bookService.getTopGenres());
@@ -122,22 +183,27 @@ public class BookController {
         return ResponseEntity.ok(bookService.getAllStatuses());
     }
 
+    /**
+     * Most recently added books; view=summary returns the list projection, as on /pagination.
+     */
     @GetMapping("/recent")
-    public ResponseEntity<List<Book>> getRecentBooks(
-            @RequestParam(defaultValue = "7") int limit) {
-        if (limit > 20) {
-            limit = 20;
-        }
-        return ResponseEntity.ok(bookService.getRecentBooks(limit));
+    public ResponseEntity<?> getRecentBooks(
+            @RequestParam(defaultValue = "7") int limit,
+            @RequestParam(required = false) String view) {
+        limit = limitListSize(limit);
+        return ResponseEntity.ok(isSummary(view)
+                ? bookService.getRecentBookSummaries(limit)
+                : bookService.getRecentBooks(limit));
     }
 
     @GetMapping("/popular")
-    public ResponseEntity<List<Book>> getPopularBooks(
-            @RequestParam(defaultValue = "10") int limit) {
-        if (limit > 20) {
-            limit = 20;
-        }
-        return ResponseEntity.ok(bookService.getPopularBooks(limit));
+    public ResponseEntity<?> getPopularBooks(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String view) {
+        limit = limitListSize(limit);
+        return ResponseEntity.ok(isSummary(view)
+                ? bookService.getPopularBookSummaries(limit)
+                : bookService.getPopularBooks(limit));
     }
 
     @GetMapping("/{id}/availability")
@@ -148,5 +214,28 @@ public class BookController {
         return ResponseEntity.ok(bookService.getBookAvailability(id));
     }
 
+    // POST because result grids send a few hundred IDs at once
+    @PostMapping("/availability/batch")
+    public ResponseEntity<List<ItemAvailabilityDto>> getBooksAvailability(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(bookService.getAvailability(ids));
+    }
+
+    private static <T> FacetedPage<T> withFacets(Page<T> results, SearchFacetsDto facets) {
+        return FacetedPage.<T>builder()
+                .results(results)
+                .facets(facets)
+                .build();
+    }
+
+    private static boolean isSummary(String view) {
+        return SUMMARY_VIEW.equals(view);
+    }
 
+    private static int limitPageSize(int size) {
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private static int limitListSize(int limit) {
+        return Math.min(limit, MAX_LIST_SIZE);
+    }
 }
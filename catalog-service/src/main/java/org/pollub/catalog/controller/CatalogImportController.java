@@ -0,0 +1,35 @@
+package org.pollub.catalog.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.pollub.catalog.model.dto.ImportProgressDto;
+import org.pollub.catalog.service.ICatalogImportService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/items/import")
+@RequiredArgsConstructor
+public class CatalogImportController {
+
+    private final ICatalogImportService catalogImportService;
+
+    /**
+     * Upload a JSON-lines file (one book per line) and import it in the background.
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportProgressDto> startImport(InputStream body) throws IOException {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(catalogImportService.startImport(body));
+    }
+
+    @GetMapping("/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportProgressDto> getProgress(@PathVariable String jobId) {
+        return ResponseEntity.ok(catalogImportService.getProgress(jobId));
+    }
+}
@@ -1,118 +1,151 @@
 package org.pollub.catalog.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.pollub.catalog.model.Book;
 import org.pollub.catalog.model.BranchInventory;
-import org.pollub.catalog.model.LibraryItem;
-import org.pollub.catalog.model.MovieDisc;
+import org.pollub.catalog.model.CatalogItemView;
 import org.pollub.catalog.model.dto.BranchInventoryDto;
+import org.pollub.catalog.model.dto.CatalogChangesDto;
 import org.pollub.catalog.model.dto.HistoryCatalogResponse;
+import org.pollub.catalog.model.dto.SuggestionDto;
 import org.pollub.catalog.service.IBranchInventoryService;
+import org.pollub.catalog.service.ICatalogChangeService;
 import org.pollub.catalog.service.ICatalogService;
+import org.pollub.catalog.service.ISuggestService;
+import org.pollub.catalog.service.ItemDtoAssembler;
 import org.pollub.common.dto.ItemDto;
+import org.pollub.common.web.NdjsonStreams;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/items")
 @RequiredArgsConstructor
 public class ItemController {
+
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_CHANGES_LIMIT = 1000;
+    private static final int STREAM_CHUNK_SIZE = 500;
+    private static final int MAX_SUGGESTIONS = 20;
     
     private final ICatalogService catalogService;
     private final IBranchInventoryService branchInventoryService;
+    private final ItemDtoAssembler itemDtoAssembler;
+    private final ICatalogChangeService catalogChangeService;
+    private final ObjectMapper objectMapper;
+    private final ISuggestService suggestService;
     
     @GetMapping
     public ResponseEntity<List<ItemDto>> getAllItems() {
-        List<ItemDto> items = catalogService.findAll().stream()
-                .map(this::toDto)
-                .toList();
+        List<ItemDto> items = itemDtoAssembler.toDtos(catalogService.findAll());
         return ResponseEntity.ok(items);
     }
+
+    /**
+     * Streaming variant of the item list, selected by Accept: application/x-ndjson.
+     * Availability is resolved per chunk, as for any other list.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamAllItems(HttpServletResponse response) throws IOException {
+        NdjsonStreams.<ItemDto>write(response, objectMapper, sink -> catalogService.forEachChunk(STREAM_CHUNK_SIZE,
+                chunk -> itemDtoAssembler.toDtos(chunk).forEach(sink)));
+    }
     
     @GetMapping("/{id}")
     public ResponseEntity<ItemDto> getItemById(@PathVariable Long id) {
-        return ResponseEntity.ok(toDto(catalogService.findById(id)));
+        return ResponseEntity.ok(itemDtoAssembler.toDto(catalogService.findById(id)));
     }
     
     @GetMapping("/available")
-    public ResponseEntity<List<ItemDto>> getAvailableItems() {
-        List<ItemDto> items = catalogService.findAvailable().stream()
-                .map(this::toDto)
-                .toList();
+    public ResponseEntity<List<ItemDto>> getAvailableItems(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        List<ItemDto> items = itemDtoAssembler.toDtos(catalogService.findAvailable(limitPage(page), limitPageSize(size)));
         return ResponseEntity.ok(items);
     }
     
     @GetMapping("/rented")
-    public ResponseEntity<List<ItemDto>> getRentedItems() {
-        List<ItemDto> items = catalogService.findRented().stream()
-                .map(this::toDto)
-                .toList();
+    public ResponseEntity<List<ItemDto>> getRentedItems(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        List<ItemDto> items = itemDtoAssembler.toDtos(catalogService.findRented(limitPage(page), limitPageSize(size)));
         return ResponseEntity.ok(items);
     }
     
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<ItemDto>> getItemsByUser(@PathVariable Long userId) {
         List<BranchInventory> rentedInventory = branchInventoryService.getRentedByUser(userId);
-        
-        List<ItemDto> items = rentedInventory.stream()
-                .map(inventory -> {
-                    LibraryItem item = catalogService.findById(inventory.getItemId());
-                    ItemDto dto = toDto(item);
-                    
-                    // Log debug info
-                    if (inventory.getDueDate() == null) {
-                        System.out.println("WARNING: DueDate is null for inventory " + inventory.getId());
-                    }
-                    if (inventory.getBranchId() == null) {
-                        System.out.println("WARNING: BranchId is null for inventory " + inventory.getId());
-                    } 
-                    
-                    dto.setDueDate(inventory.getDueDate());
-                    dto.setRentedFromBranchId(inventory.getBranchId());
-                    dto.setRentExtended(inventory.getRentExtended());
-                    return dto;
-                })
-                .toList();
-                
+        List<ItemDto> items = itemDtoAssembler.toRentalDtos(rentedInventory);
         return ResponseEntity.ok(items);
     }
     
     @GetMapping("/branch/{branchId}")
-    public ResponseEntity<List<ItemDto>> getItemsByBranch(@PathVariable Long branchId) {
-        List<ItemDto> items = catalogService.findByBranchId(branchId).stream()
-                .map(this::toDto)
-                .toList();
+    public ResponseEntity<List<ItemDto>> getItemsByBranch(
+            @PathVariable Long branchId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        List<ItemDto> items = itemDtoAssembler.toDtos(catalogService.findByBranchId(branchId, limitPage(page), limitPageSize(size)));
         return ResponseEntity.ok(items);
     }
     
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDto>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(suggestService.suggest(q, Math.clamp(limit, 1, MAX_SUGGESTIONS)));
+    }
+
+    @GetMapping("/available/genres")
+    public ResponseEntity<Map<String, Integer>> getAvailableGenreCounts(@RequestParam(required = false) Long branchId) {
+        return ResponseEntity.ok(catalogService.countAvailableByGenre(branchId));
+    }
+
     @GetMapping("/branch/{branchId}/available")
     public ResponseEntity<List<ItemDto>> getAvailableByBranch(@PathVariable Long branchId) {
-        List<ItemDto> items = catalogService.findAvailableByBranch(branchId).stream()
-                .map(this::toDto)
-                .toList();
+        List<ItemDto> items = itemDtoAssembler.toDtos(catalogService.findAvailableByBranch(branchId));
         return ResponseEntity.ok(items);
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<ItemDto>> searchItems(@RequestParam String query) {
-        List<ItemDto> items = catalogService.searchItems(query).stream()
-                .map(this::toDto)
-                .toList();
+    public ResponseEntity<List<ItemDto>> searchItems(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean fuzzy) {
+        int pageSize = limitPageSize(size);
+        List<CatalogItemView> found = fuzzy
+                ? catalogService.fuzzySearchItems(query, limitPage(page), pageSize)
+                : catalogService.searchItems(query, limitPage(page), pageSize);
+        List<ItemDto> items = itemDtoAssembler.toDtos(found);
         return ResponseEntity.ok(items);
     }
     
     @GetMapping("/bestsellers")
-    public ResponseEntity<List<ItemDto>> getBestsellers() {
-        List<ItemDto> items = catalogService.findBestsellers().stream()
-                .map(this::toDto)
-                .toList();
+    public ResponseEntity<List<ItemDto>> getBestsellers(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        List<ItemDto> items = itemDtoAssembler.toDtos(catalogService.findBestsellers(limitPage(page), limitPageSize(size)));
         return ResponseEntity.ok(items);
     }
     
+    /**
+     * Items and copies changed after version since, latest state only (one entry per item or copy).
+     * Start from since=0 and pass nextSince back until hasMore is false.
+     * Restricted to other services and admins (SecurityConfig), as copies carry the users holding them.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<CatalogChangesDto> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(catalogChangeService.getChanges(since, Math.clamp(limit, 1, MAX_CHANGES_LIMIT)));
+    }
+    
     // ===== Inventory Endpoints =====
     
     @GetMapping("/{id}/inventory")
@@ -126,10 +159,13 @@ public class ItemController {
     }
     
     @PostMapping("/{id}/inventory")
-    public ResponseEntity<BranchInventoryDto> addInventory(@PathVariable Long id,
-                                                            @RequestParam Long branchId) {
-        BranchInventory inventory = branchInventoryService.addInventory(id, branchId);
-        return ResponseEntity.ok(toBranchInventoryDto(inventory));
+    public ResponseEntity<List<BranchInventoryDto>> addInventory(@PathVariable Long id,
+                                                                  @RequestParam Long branchId,
+                                                                  @RequestParam(defaultValue = "1") int copies) {
+        List<BranchInventoryDto> inventory = branchInventoryService.addInventory(id, branchId, copies).stream()
+                .map(this::toBranchInventoryDto)
+                .toList();
+        return ResponseEntity.ok(inventory);
     }
 
     //    @PutMapping("/{id}/extend")
@@ -159,33 +195,14 @@ public class ItemController {
         return ResponseEntity.ok(responses);
     }
     
-    private ItemDto toDto(LibraryItem item) {
-        // Compute overall status based on inventory
-        List<Long> availableBranches = branchInventoryService.getAvailableBranchIds(item.getId());
-        String overallStatus = availableBranches.isEmpty() ? "UNAVAILABLE" : "AVAILABLE";
-        
-        ItemDto.ItemDtoBuilder builder = ItemDto.builder()
-                .id(item.getId())
-                .title(item.getTitle())
-                .description(item.getDescription())
-                .imageUrl(item.getImageUrl())
-                .itemType(item.getItemType().name())
-                .status(overallStatus)
-                .releaseYear(item.getReleaseYear())
-                .isBestseller(item.getIsBestseller());
-        
-        if (item instanceof Book book) {
-            builder.author(book.getAuthor())
-                   .isbn(book.getIsbn())
-                   .pageCount(book.getPageCount());
-        } else if (item instanceof MovieDisc movie) {
-            builder.director(movie.getDirector())
-                   .durationMinutes(movie.getDuration());
-        }
-        
-        return builder.build();
+    private static int limitPage(int page) {
+        return Math.max(page, 0);
     }
-    
+
+    private static int limitPageSize(int size) {
+        return Math.clamp(size, 1, MAX_PAGE_SIZE);
+    }
+
     private BranchInventoryDto toBranchInventoryDto(BranchInventory inventory) {
         return BranchInventoryDto.builder()
                 .id(inventory.getId())
@@ -30,9 +30,10 @@ public class ItemRentalController {
     @PutMapping("/{id}/return")
     public ResponseEntity<Void> returnItem(
             @PathVariable Long id,
-            @RequestParam Long branchId
+            @RequestParam Long branchId,
+            @RequestParam(required = false) Long userId
     ) {
-        branchInventoryService.returnCopy(id, branchId);
+        branchInventoryService.returnCopy(id, branchId, userId);
         return ResponseEntity.noContent().build();
     }
 
@@ -40,9 +41,10 @@ public class ItemRentalController {
     public ResponseEntity<Void> extendRental(
             @PathVariable Long id,
             @RequestParam Long branchId,
+            @RequestParam(required = false) Long userId,
             @RequestParam int days
     ) {
-        branchInventoryService.extendRental(id, branchId, days);
+        branchInventoryService.extendRental(id, branchId, userId, days);
         return ResponseEntity.noContent().build(); // 204
     }
 
@@ -50,7 +50,7 @@ public class ItemReservationController {
     ) {
         String statusStr = request.getStatus();
 
-        branchInventoryService.updateStatus(itemId, branchId, statusStr);
+        branchInventoryService.updateStatus(itemId, branchId, request.getCopyId(), request.getUserId(), statusStr);
         return ResponseEntity.noContent().build();
     }
 
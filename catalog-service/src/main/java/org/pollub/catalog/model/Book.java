@@ -2,17 +2,22 @@ package org.pollub.catalog.model;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
+import org.pollub.catalog.utils.IsbnNormalizer;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "books")
+@Table(name = "books",
+       indexes = @Index(name = "idx_books_isbn13", columnList = "isbn13"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -26,6 +31,10 @@ public class Book extends LibraryItem {
     @Column(nullable = false)
     private String isbn;
 
+    // Canonical ISBN-13 of isbn, derived on write; null if isbn is not a valid ISBN
+    @Column(length = 13)
+    private String isbn13;
+
     @Column(nullable = false)
     private String paperType;
 
@@ -41,6 +50,12 @@ public class Book extends LibraryItem {
     @Column(nullable = false)
     private String genre;
 
+    @PrePersist
+    @PreUpdate
+    protected void canonicalizeIsbn() {
+        this.isbn13 = IsbnNormalizer.toIsbn13(isbn);
+    }
+
     @Override
     @Deprecated
     public LocalDateTime calculateDueTime() {
@@ -0,0 +1,51 @@
+package org.pollub.catalog.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
+
+import java.io.Serializable;
+
+/**
+ * Lower-cased title and author of library items, one row per item and field, as a UNION ALL
+ * of library_items and books. Title and author live in different tables of the JOINED hierarchy,
+ * so a filter on both cannot be one indexed predicate; a filter on this view is pushed down into
+ * each branch, where it matches the trigram index on lower(title) or lower(author).
+ * Only used in subqueries; never loaded.
+ */
+@Entity
+@Immutable
+@Subselect("SELECT i.id AS item_id, 'title' AS field, lower(i.title) AS text FROM library_items i " +
+        "UNION ALL " +
+        "SELECT b.id AS item_id, 'author' AS field, lower(b.author) AS text FROM books b")
+@Synchronize({"library_items", "books"})
+@IdClass(BookSearchTerm.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSearchTerm {
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Id
+    private String field;
+
+    private String text;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long itemId;
+        private String field;
+    }
+}
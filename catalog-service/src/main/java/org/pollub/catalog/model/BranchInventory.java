@@ -9,12 +9,17 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 /**
- * Represents a copy of a library item at a specific branch.
- * Each branch can have its own copy with independent rental status.
+ * Represents a physical copy of a library item at a specific branch.
+ * A branch can hold several copies of an item, each with independent rental status;
+ * their counts are kept in BranchStock.
  */
 @Entity
 @Table(name = "branch_inventory",
-       uniqueConstraints = @UniqueConstraint(columnNames = {"item_id", "branch_id"}))
+       indexes = {
+           @Index(name = "idx_branch_inventory_item_branch_status", columnList = "item_id, branch_id, status"),
+           @Index(name = "idx_branch_inventory_status_item", columnList = "status, item_id"),
+           @Index(name = "idx_branch_inventory_branch_item", columnList = "branch_id, item_id")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
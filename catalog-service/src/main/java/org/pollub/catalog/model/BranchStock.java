@@ -0,0 +1,39 @@
+package org.pollub.catalog.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Copy counts of a library item at a branch.
+ * Kept in step with the per-copy BranchInventory rows by BranchInventoryService,
+ * so availability checks read one row instead of scanning copies.
+ */
+@Entity
+@Table(name = "branch_stock",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"item_id", "branch_id"}),
+       indexes = @Index(name = "idx_branch_stock_branch_available", columnList = "branch_id, available_count"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BranchStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(name = "branch_id", nullable = false)
+    private Long branchId;
+
+    @Column(name = "total_count", nullable = false)
+    private Integer totalCount;
+
+    @Column(name = "available_count", nullable = false)
+    private Integer availableCount;
+}
@@ -0,0 +1,45 @@
+package org.pollub.catalog.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Compacted change log entry: one row per item or copy, holding the version of its latest change.
+ * Writers reset version to null; ICatalogChangeRepository.sequencePending assigns versions afterwards,
+ * one sequencer at a time, so versions become visible in increasing order.
+ */
+@Entity
+@Table(name = "catalog_change_log",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"entity_type", "entity_id"}),
+       indexes = @Index(name = "idx_catalog_change_log_version", columnList = "version"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false)
+    private ChangeType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    // Null until sequenced
+    private Long version;
+
+    @Column(nullable = false)
+    private Boolean deleted;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
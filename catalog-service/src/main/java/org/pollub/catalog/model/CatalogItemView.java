@@ -0,0 +1,69 @@
+package org.pollub.catalog.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flattened, read-only copy of a library item with the attributes of every subtype as nullable columns.
+ * Listing, search and DTO paths read this single table instead of the JOINED LibraryItem hierarchy;
+ * rows are rebuilt from library_items/books/movie_discs by ICatalogItemViewRepository on every write.
+ */
+@Entity
+@Immutable
+@Table(name = "catalog_item_view",
+       indexes = @Index(name = "idx_catalog_item_view_bestseller", columnList = "is_bestseller, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogItemView {
+
+    @Id
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "item_type", nullable = false)
+    private ItemType itemType;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Column(name = "image_url")
+    private String imageUrl;
+
+    @Column(name = "release_year")
+    private Integer releaseYear;
+
+    @Column(name = "is_bestseller", nullable = false)
+    private Boolean isBestseller;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    // Book attributes
+    private String author;
+    private String isbn;
+
+    @Column(name = "page_count")
+    private Integer pageCount;
+
+    private String publisher;
+
+    // Book and movie attributes
+    private String genre;
+
+    // Movie attributes
+    private String director;
+
+    @Column(name = "duration_minutes")
+    private Integer durationMinutes;
+}
@@ -0,0 +1,9 @@
+package org.pollub.catalog.model;
+
+/**
+ * Kind of entity tracked by the catalog change log.
+ */
+public enum ChangeType {
+    ITEM,
+    COPY
+}
@@ -0,0 +1,25 @@
+package org.pollub.catalog.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * List view of a book: only the columns catalog grids show.
+ * Full detail (description, paper type, shelf, ...) stays on GET /api/items/book/{id}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSummaryDto {
+    private Long id;
+    private String title;
+    private String author;
+    private String imageUrl;
+    private String genre;
+    private String publisher;
+    private Integer releaseYear;
+    private Boolean isBestseller;
+}
@@ -0,0 +1,24 @@
+package org.pollub.catalog.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.pollub.common.dto.ItemDto;
+
+/**
+ * Latest state of one item or copy in the change log.
+ * Exactly one of item and copy is set, unless the entity was deleted.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogChangeDto {
+    private String type; // ITEM or COPY
+    private Long id;
+    private Long version;
+    private boolean deleted;
+    private ItemDto item;
+    private BranchInventoryDto copy;
+}
@@ -0,0 +1,21 @@
+package org.pollub.catalog.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of the change log. Pass nextSince as since to get the following changes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogChangesDto {
+    private List<CatalogChangeDto> changes;
+    private long nextSince;
+    private boolean hasMore;
+}
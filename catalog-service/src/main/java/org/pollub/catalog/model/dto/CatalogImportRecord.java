@@ -0,0 +1,33 @@
+package org.pollub.catalog.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * One line of a JSON-lines catalog import file: a book and its copies per branch.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogImportRecord {
+    private String title;
+    private String author;
+    private String isbn;
+    private String genre;
+    private String publisher;
+    private Integer pageCount;
+    private String paperType;
+    private Integer shelfNumber;
+    private String description;
+    private String imageUrl;
+    private Integer releaseYear;
+    private Boolean isBestseller;
+
+    // branchId -> number of copies at that branch
+    private Map<Long, Integer> copies;
+}
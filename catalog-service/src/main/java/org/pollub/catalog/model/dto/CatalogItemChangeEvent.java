@@ -0,0 +1,21 @@
+package org.pollub.catalog.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An item was created, changed or deleted. Published by BookService and CatalogService inside the writing
+ * transaction, once the write is flushed. Data derived from item rows in the database (read model, search
+ * documents, change log, catalog version) is updated by @EventListener handlers in that same transaction;
+ * in-memory read models catch up through @TransactionalEventListener handlers once it has committed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogItemChangeEvent {
+    private Long itemId;
+    private boolean deleted;
+}
@@ -0,0 +1,25 @@
+package org.pollub.catalog.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset page of results. Pass nextCursor back to get the following page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+    // Only filled in when requested; may be an estimate
+    private Long totalEstimate;
+    // Only filled in when requested; counted over all matches, not just this page
+    private SearchFacetsDto facets;
+}
@@ -0,0 +1,19 @@
+package org.pollub.catalog.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+/**
+ * A page of search results together with facet counts over all matches.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedPage<T> {
+    private Page<T> results;
+    private SearchFacetsDto facets;
+}
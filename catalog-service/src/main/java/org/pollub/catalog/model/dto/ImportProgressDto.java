@@ -0,0 +1,26 @@
+package org.pollub.catalog.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress and throughput of a catalog import job.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportProgressDto {
+    private String jobId;
+    private String state; // RUNNING, COMPLETED or FAILED
+    private long linesRead;
+    private long imported;
+    private long duplicates;
+    private long rejected;
+    private long copies;
+    private long elapsedMillis;
+    private double titlesPerSecond;
+    private String error;
+}
@@ -0,0 +1,26 @@
+package org.pollub.catalog.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A copy changed status. Published by BranchInventoryService and pushed to availability feed subscribers
+ * once the change is committed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryChangeEvent {
+    private Long itemId;
+    private Long branchId;
+    private Long copyId;
+    private String action; // rent, return, reserve, cancel or update-status
+    private String previousStatus;
+    private String status;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,25 @@
+package org.pollub.catalog.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Availability of one item for result grids: where it can be picked up now and,
+ * when rented, when the first copy is expected back.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemAvailabilityDto {
+    private Long id;
+    private String status;
+    private Set<Long> availableAtBranches;
+    private LocalDate expectedReturnDate;
+    private Integer daysUntilDue;
+}
@@ -0,0 +1,24 @@
+package org.pollub.catalog.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Counts of matching items per facet value, most frequent values first.
+ * Availability is keyed AVAILABLE / UNAVAILABLE by whether the item has an available copy anywhere.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchFacetsDto {
+    private long total;
+    private Map<String, Long> genres;
+    private Map<String, Long> publishers;
+    private Map<String, Long> itemTypes;
+    private Map<String, Long> availability;
+}
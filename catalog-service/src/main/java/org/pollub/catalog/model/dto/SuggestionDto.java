@@ -0,0 +1,21 @@
+package org.pollub.catalog.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One type-ahead suggestion for the catalog search box.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDto {
+    private Long id;
+    private String itemType;
+    private String title;
+    private String creator;
+    private Boolean isBestseller;
+}
@@ -8,4 +8,10 @@ public class UpdateInventoryStatusRequest {
 
     @NotBlank(message = "Status cannot be blank")
     private String status;
+
+    // The copy to update; required unless userId is given
+    private Long copyId;
+
+    // Selects the copy reserved by this user when no copyId is given
+    private Long userId;
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package org.pollub.catalog.repository;
+
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.pollub.catalog.model.Book;
+import org.pollub.catalog.model.BookSearchTerm;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Filters for book search. Each filter is only added when its value is present,
+ * so the generated SQL stays simple enough for the trigram indexes on
+ * lower(title) and lower(author) to be used (see SearchIndexInitializer).
+ */
+public final class BookSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private BookSpecifications() {
+    }
+
+    /**
+     * Title or author contains the query, ignoring case.
+     * An OR across library_items.title and books.author could use neither trigram index,
+     * so the match is an IN over the UNION ALL of both columns (BookSearchTerm),
+     * where each branch is an indexed lookup.
+     */
+    public static Specification<Book> titleOrAuthorContains(String query) {
+        String pattern = "%" + escapeLike(query.toLowerCase(Locale.ROOT)) + "%";
+        return (root, cq, cb) -> {
+            Subquery<Long> matches = cq.subquery(Long.class);
+            Root<BookSearchTerm> term = matches.from(BookSearchTerm.class);
+            matches.select(term.get("itemId"))
+                    .where(cb.like(term.get("text"), pattern, LIKE_ESCAPE));
+            return root.get("id").in(matches);
+        };
+    }
+
+    /**
+     * Publisher equals the given one, ignoring case.
+     */
+    public static Specification<Book> publisherEquals(String publisher) {
+        String value = publisher.toLowerCase(Locale.ROOT);
+        return (root, cq, cb) -> cb.equal(cb.lower(root.get("publisher")), value);
+    }
+
+    /**
+     * Genre is one of the given ones.
+     */
+    public static Specification<Book> genreIn(Collection<String> genres) {
+        return (root, cq, cb) -> root.get("genre").in(genres);
+    }
+
+    /**
+     * Book is one of the given ones.
+     */
+    public static Specification<Book> idIn(Collection<Long> ids) {
+        return (root, cq, cb) -> root.get("id").in(ids);
+    }
+
+    /**
+     * Book comes after (sortKey, id) in the given keyset order.
+     * A null property means the order is by id alone.
+     */
+    public static Specification<Book> after(String property, boolean descending, String sortKey, Long id) {
+        return (root, cq, cb) -> {
+            Path<Long> idPath = root.get("id");
+            Predicate idAfter = descending ? cb.lessThan(idPath, id) : cb.greaterThan(idPath, id);
+            if (property == null) {
+                return idAfter;
+            }
+            Path<String> keyPath = root.get(property);
+            Predicate keyAfter = descending ? cb.lessThan(keyPath, sortKey) : cb.greaterThan(keyPath, sortKey);
+            return cb.or(keyAfter, cb.and(cb.equal(keyPath, sortKey), idAfter));
+        };
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
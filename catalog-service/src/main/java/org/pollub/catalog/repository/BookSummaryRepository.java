@@ -0,0 +1,123 @@
+package org.pollub.catalog.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.hibernate.jpa.HibernateHints;
+import org.pollub.catalog.model.Book;
+import org.pollub.catalog.model.BranchStock;
+import org.pollub.catalog.model.dto.BookSummaryDto;
+import org.pollub.catalog.repository.projection.BookFacetRow;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Book list queries that select only the BookSummaryDto columns (a JPQL constructor expression),
+ * so the TEXT description and other detail columns are neither read nor mapped,
+ * plus the id and facet queries used to count search facets.
+ * Takes the same Specifications as IBookRepository.
+ */
+@Repository
+public class BookSummaryRepository {
+
+    private static final int ID_FETCH_SIZE = 5000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Get summaries of books matching the specification, in the given order.
+     */
+    public List<BookSummaryDto> findAll(Specification<Book> spec, Sort sort, long offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookSummaryDto> query = cb.createQuery(BookSummaryDto.class);
+        Root<Book> book = query.from(Book.class);
+
+        query.select(cb.construct(BookSummaryDto.class,
+                book.get("id"),
+                book.get("title"),
+                book.get("author"),
+                book.get("imageUrl"),
+                book.get("genre"),
+                book.get("publisher"),
+                book.get("releaseYear"),
+                book.get("isBestseller")));
+
+        Predicate predicate = spec.toPredicate(book, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, book, cb));
+
+        return entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Get the IDs of all books matching the specification as a bitmap, streamed from a database
+     * cursor so a broad match never materializes as a list; must be called inside a transaction.
+     */
+    public RoaringBitmap findIdBitmap(Specification<Book> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Book> book = query.from(Book.class);
+
+        query.select(book.get("id"));
+        Predicate predicate = spec.toPredicate(book, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        RoaringBitmap ids = new RoaringBitmap();
+        try (Stream<Long> rows = entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, ID_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            rows.forEach(id -> ids.add(Math.toIntExact(id)));
+        }
+        return ids;
+    }
+
+    /**
+     * Count books matching the specification per genre, publisher and availability, in one grouped query.
+     */
+    public List<BookFacetRow> countFacets(Specification<Book> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookFacetRow> query = cb.createQuery(BookFacetRow.class);
+        Root<Book> book = query.from(Book.class);
+
+        Subquery<Integer> availableStock = query.subquery(Integer.class);
+        Root<BranchStock> stock = availableStock.from(BranchStock.class);
+        availableStock.select(cb.literal(1)).where(
+                cb.equal(stock.get("itemId"), book.get("id")),
+                cb.greaterThan(stock.get("availableCount"), 0));
+        Expression<Boolean> available = cb.<Boolean>selectCase()
+                .when(cb.exists(availableStock), true)
+                .otherwise(false);
+
+        query.select(cb.construct(BookFacetRow.class,
+                book.get("genre"),
+                book.get("publisher"),
+                available,
+                cb.count(book)));
+        Predicate predicate = spec.toPredicate(book, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.groupBy(book.get("genre"), book.get("publisher"), available);
+
+        return entityManager.createQuery(query).getResultList();
+    }
+}
@@ -0,0 +1,158 @@
+package org.pollub.catalog.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.pollub.catalog.model.dto.CatalogImportRecord;
+import org.pollub.catalog.utils.IsbnNormalizer;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Set-based JDBC writes for bulk catalog import.
+ * Each method issues one batched statement per import batch instead of one JPA persist per row.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CatalogImportRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reserve count ids from the library_items sequence in one round trip.
+     */
+    public List<Long> allocateItemIds(int count) {
+        return jdbcTemplate.queryForList(
+                "SELECT nextval(pg_get_serial_sequence('library_items', 'id')) FROM generate_series(1, ?)",
+                Long.class, count);
+    }
+
+    /**
+     * Insert the library_items and books rows of a batch, ids[i] belonging to books[i], skipping books
+     * whose canonical ISBN is already in the catalog or earlier in the batch. Duplicates are detected
+     * by the unique index on coalesce(isbn13, isbn) (see IsbnIndexInitializer), named as the conflict
+     * target so the statement fails if the index is missing; their library_items rows are removed again.
+     *
+     * @return ids of the books inserted
+     */
+    public Set<Long> insertBooks(List<CatalogImportRecord> books, List<Long> ids) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO library_items (id, title, description, image_url, item_type, release_year, " +
+                        "is_bestseller, created_at) VALUES (?, ?, ?, ?, 'BOOK', ?, ?, ?)",
+                new BookBatchSetter(books, ids) {
+                    @Override
+                    void bind(PreparedStatement ps, long id, CatalogImportRecord book) throws SQLException {
+                        ps.setLong(1, id);
+                        ps.setString(2, book.getTitle());
+                        ps.setString(3, book.getDescription());
+                        ps.setString(4, book.getImageUrl());
+                        ps.setObject(5, book.getReleaseYear(), Types.INTEGER);
+                        ps.setBoolean(6, Boolean.TRUE.equals(book.getIsBestseller()));
+                        ps.setTimestamp(7, now);
+                    }
+                });
+
+        // One statement for the whole batch, as batched statements report no per-row counts once rewritten
+        Set<Long> inserted = new HashSet<>(jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO books (id, page_count, isbn, isbn13, paper_type, publisher, shelf_number, author, genre) " +
+                            "SELECT * FROM unnest(?::bigint[], ?::int[], ?::varchar[], ?::varchar[], ?::varchar[], " +
+                            "?::varchar[], ?::int[], ?::varchar[], ?::varchar[]) " +
+                            "ON CONFLICT ((coalesce(isbn13, isbn))) DO NOTHING RETURNING id");
+            ps.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            ps.setArray(2, connection.createArrayOf("integer", column(books, CatalogImportRecord::getPageCount)));
+            ps.setArray(3, connection.createArrayOf("varchar", column(books, CatalogImportRecord::getIsbn)));
+            ps.setArray(4, connection.createArrayOf("varchar", column(books, book -> IsbnNormalizer.toIsbn13(book.getIsbn()))));
+            ps.setArray(5, connection.createArrayOf("varchar", column(books, CatalogImportRecord::getPaperType)));
+            ps.setArray(6, connection.createArrayOf("varchar", column(books, CatalogImportRecord::getPublisher)));
+            ps.setArray(7, connection.createArrayOf("integer", column(books, CatalogImportRecord::getShelfNumber)));
+            ps.setArray(8, connection.createArrayOf("varchar", column(books, CatalogImportRecord::getAuthor)));
+            ps.setArray(9, connection.createArrayOf("varchar", column(books, CatalogImportRecord::getGenre)));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1)));
+
+        List<Object[]> skipped = ids.stream()
+                .filter(id -> !inserted.contains(id))
+                .map(id -> new Object[]{id})
+                .toList();
+        if (!skipped.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM library_items WHERE id = ?", skipped);
+        }
+        return inserted;
+    }
+
+    private static Object[] column(List<CatalogImportRecord> books, Function<CatalogImportRecord, Object> value) {
+        return books.stream().map(value).toArray();
+    }
+
+    /**
+     * Insert the available copies of a batch and add them to the branch_stock counters.
+     *
+     * @return number of copies inserted
+     */
+    public long insertCopies(List<CatalogImportRecord> books, List<Long> ids) {
+        List<Object[]> stock = new ArrayList<>();
+        long copies = 0;
+        for (int i = 0; i < books.size(); i++) {
+            Map<Long, Integer> perBranch = books.get(i).getCopies();
+            if (perBranch == null) {
+                continue;
+            }
+            for (Map.Entry<Long, Integer> entry : perBranch.entrySet()) {
+                stock.add(new Object[]{ids.get(i), entry.getKey(), entry.getValue()});
+                copies += entry.getValue();
+            }
+        }
+        if (stock.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO branch_inventory (item_id, branch_id, status, rent_extended) " +
+                        "SELECT ?, ?, 'AVAILABLE', false FROM generate_series(1, ?)",
+                stock);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO branch_stock (item_id, branch_id, total_count, available_count) " +
+                        "VALUES (?, ?, ?, ?) " +
+                        "ON CONFLICT (item_id, branch_id) DO UPDATE SET " +
+                        "total_count = branch_stock.total_count + EXCLUDED.total_count, " +
+                        "available_count = branch_stock.available_count + EXCLUDED.available_count",
+                stock.stream().map(row -> new Object[]{row[0], row[1], row[2], row[2]}).toList());
+        return copies;
+    }
+
+    private abstract static class BookBatchSetter implements BatchPreparedStatementSetter {
+        private final List<CatalogImportRecord> books;
+        private final List<Long> ids;
+
+        BookBatchSetter(List<CatalogImportRecord> books, List<Long> ids) {
+            this.books = books;
+            this.ids = ids;
+        }
+
+        abstract void bind(PreparedStatement ps, long id, CatalogImportRecord book) throws SQLException;
+
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+            bind(ps, ids.get(i), books.get(i));
+        }
+
+        @Override
+        public int getBatchSize() {
+            return books.size();
+        }
+    }
+}
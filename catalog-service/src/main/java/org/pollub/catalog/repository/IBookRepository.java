@@ -1,17 +1,21 @@
 package org.pollub.catalog.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.pollub.catalog.model.Book;
-import org.pollub.catalog.model.ItemStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface IBookRepository extends ILibraryItemRepository<Book> {
+public interface IBookRepository extends ILibraryItemRepository<Book>, JpaSpecificationExecutor<Book> {
 
     List<Book> findAll();
     Page<Book> findAll(Pageable pageable);
@@ -19,6 +23,14 @@ public interface IBookRepository extends ILibraryItemRepository<Book> {
     List<Book> findByTitle(String title);
     List<Book> findByGenre(String genre);
     List<Book> findByIsbn(String isbn);
+    List<Book> findByIsbn13(String isbn13);
+
+    // All books in id order, fetched from a database cursor; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Book> streamAllByOrderByIdAsc();
 
     // Recent books - ordered by creation date descending
     List<Book> findAllByOrderByCreatedAtDesc(Pageable pageable);
@@ -27,20 +39,6 @@ public interface IBookRepository extends ILibraryItemRepository<Book> {
     @Query("SELECT b FROM Book b WHERE b.id IN :ids")
     List<Book> findByIdIn(@Param("ids") List<Long> ids);
 
-    @Query("SELECT b FROM Book b WHERE " +
-            "(LOWER(b.title) LIKE LOWER(CONCAT('%', COALESCE(:query, ''), '%')) " +
-            "   OR LOWER(b.author) LIKE LOWER(CONCAT('%', COALESCE(:query, ''), '%')) " +
-            "   OR :query IS NULL) " +
-            "AND (LOWER(b.publisher) = LOWER(COALESCE(:publisher, b.publisher))) " +
-            "AND (b.genre IN :genres OR :genres IS NULL)")
-    Page<Book> searchBooksWithoutStatus(
-            @Param("query") String query,
-            @Param("publisher") String publisher,
-            @Param("genres") String genres,
-            Pageable pageable
-    );
-    //trzeba takie dziwne, bo jest jakis bug w spring data jpa z bytea i nie da sie tego inaczej obejsc
-
     @Query(
             value = "SELECT b.genre " +
                     "FROM books b " +
@@ -61,6 +59,12 @@ public interface IBookRepository extends ILibraryItemRepository<Book> {
     )
     List<String> findOtherGenres();
 
+    /**
+     * Planner estimate of the number of books; cheap, but only as fresh as the last ANALYZE.
+     */
+    @Query(value = "SELECT GREATEST(reltuples, 0)::bigint FROM pg_class WHERE relname = 'books'", nativeQuery = true)
+    Long estimateCount();
+
     @Query("SELECT DISTINCT b.publisher FROM Book b ORDER BY b.publisher ASC")
     List<String> findAllPublishers();
 
@@ -2,11 +2,18 @@ package org.pollub.catalog.repository;
 
 import org.pollub.catalog.model.BranchInventory;
 import org.pollub.catalog.model.CopyStatus;
+import org.pollub.catalog.repository.projection.CopyStatusRow;
+import org.pollub.catalog.repository.projection.HistoryCatalogRow;
+import org.pollub.catalog.repository.projection.ItemAvailabilityRow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,9 +29,44 @@ public interface IBranchInventoryRepository extends JpaRepository<BranchInventor
     List<BranchInventory> findByItemId(Long itemId);
 
     /**
-     * Find inventory for a specific item at a specific branch.
+     * Find any copy of an item at a branch.
      */
-    Optional<BranchInventory> findByItemIdAndBranchId(Long itemId, Long branchId);
+    Optional<BranchInventory> findFirstByItemIdAndBranchIdOrderByIdAsc(Long itemId, Long branchId);
+
+    /**
+     * Find a copy of an item at a branch with a specific status.
+     */
+    Optional<BranchInventory> findFirstByItemIdAndBranchIdAndStatusOrderByIdAsc(Long itemId, Long branchId, CopyStatus status);
+
+    /**
+     * Find and lock the first copy of an item at a branch with the given status, skipping copies
+     * locked by other transactions, so concurrent requests claim different copies instead of
+     * contending for the same one. The lock is held until the transaction ends.
+     */
+    @Query(value = "SELECT * FROM branch_inventory " +
+            "WHERE item_id = :itemId AND branch_id = :branchId AND status = :status " +
+            "ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    Optional<BranchInventory> claimFirstByStatus(@Param("itemId") Long itemId,
+                                                 @Param("branchId") Long branchId,
+                                                 @Param("status") String status);
+
+    /**
+     * Find a copy of an item at a branch rented by a specific user.
+     */
+    Optional<BranchInventory> findFirstByItemIdAndBranchIdAndStatusAndRentedByUserIdOrderByIdAsc(
+            Long itemId, Long branchId, CopyStatus status, Long rentedByUserId);
+
+    /**
+     * Find a copy of an item at a branch reserved by a specific user.
+     */
+    Optional<BranchInventory> findFirstByItemIdAndBranchIdAndStatusAndReservedByUserIdOrderByIdAsc(
+            Long itemId, Long branchId, CopyStatus status, Long reservedByUserId);
+
+    /**
+     * Find all copies of an item with a specific status.
+     */
+    List<BranchInventory> findByItemIdAndStatus(Long itemId, CopyStatus status);
 
     /**
      * Find all inventory at a branch with a specific status.
@@ -47,6 +89,24 @@ public interface IBranchInventoryRepository extends JpaRepository<BranchInventor
     @Query("SELECT bi.itemId FROM BranchInventory bi WHERE bi.branchId = :branchId AND bi.status = :status")
     List<Long> findItemIdsByBranchIdAndStatus(@Param("branchId") Long branchId, @Param("status") CopyStatus status);
 
+    /**
+     * Get a page of distinct item IDs that have at least one copy with the given status.
+     */
+    @Query("SELECT DISTINCT bi.itemId FROM BranchInventory bi WHERE bi.status = :status ORDER BY bi.itemId")
+    List<Long> findDistinctItemIdsByStatus(@Param("status") CopyStatus status, Pageable pageable);
+
+    /**
+     * Get the distinct item IDs of the given copies.
+     */
+    @Query("SELECT DISTINCT bi.itemId FROM BranchInventory bi WHERE bi.id IN :copyIds")
+    List<Long> findItemIdsOfCopies(@Param("copyIds") Collection<Long> copyIds);
+
+    /**
+     * Get a page of distinct item IDs that have any copy at a branch.
+     */
+    @Query("SELECT DISTINCT bi.itemId FROM BranchInventory bi WHERE bi.branchId = :branchId ORDER BY bi.itemId")
+    List<Long> findDistinctItemIdsByBranchId(@Param("branchId") Long branchId, Pageable pageable);
+
     /**
      * Check if a copy exists at a branch with a specific status.
      */
@@ -68,4 +128,110 @@ public interface IBranchInventoryRepository extends JpaRepository<BranchInventor
      */
     @Query("SELECT bi.branchId FROM BranchInventory bi WHERE bi.itemId = :itemId AND bi.status = 'AVAILABLE'")
     List<Long> findAvailableBranchIds(@Param("itemId") Long itemId);
+
+    /**
+     * Of the given items, find those with at least one available copy.
+     */
+    @Query("SELECT DISTINCT bi.itemId FROM BranchInventory bi WHERE bi.itemId IN :itemIds AND bi.status = 'AVAILABLE'")
+    List<Long> findAvailableItemIdsIn(@Param("itemIds") Collection<Long> itemIds);
+
+    /**
+     * Find the branches holding copies of the given items, one row per item and branch,
+     * together with item title and (for books) author.
+     */
+    @Query("SELECT DISTINCT bi.itemId AS itemId, bi.branchId AS branchId, i.title AS title, b.author AS author " +
+            "FROM BranchInventory bi " +
+            "JOIN LibraryItem i ON i.id = bi.itemId " +
+            "LEFT JOIN Book b ON b.id = i.id " +
+            "WHERE bi.itemId IN :itemIds")
+    List<HistoryCatalogRow> findHistoryCatalogRows(@Param("itemIds") Collection<Long> itemIds);
+
+    /**
+     * Summarize availability of the given items in one grouped query:
+     * earliest due date of rented copies and branches with an available copy.
+     */
+    @Query(value = "SELECT bi.item_id AS itemId, " +
+            "MIN(bi.due_date) FILTER (WHERE bi.status = 'RENTED') AS earliestDueDate, " +
+            "string_agg(DISTINCT CAST(bi.branch_id AS text), ',') FILTER (WHERE bi.status = 'AVAILABLE') " +
+            "AS availableBranchIds " +
+            "FROM branch_inventory bi WHERE bi.item_id IN (:itemIds) GROUP BY bi.item_id",
+            nativeQuery = true)
+    List<ItemAvailabilityRow> summarizeAvailability(@Param("itemIds") Collection<Long> itemIds);
+
+    /**
+     * Get the distinct statuses of copies per item and branch.
+     * Copies of deleted items are left in branch_inventory, so only items that still exist count.
+     */
+    @Query(value = "SELECT DISTINCT bi.item_id AS itemId, bi.branch_id AS branchId, bi.status AS status " +
+            "FROM branch_inventory bi JOIN library_items li ON li.id = bi.item_id",
+            nativeQuery = true)
+    List<CopyStatusRow> findCopyStatuses();
+
+    /**
+     * Get the distinct statuses of copies for every item and branch that holds one of the given copies,
+     * skipping deleted items like findCopyStatuses.
+     */
+    @Query(value = "SELECT DISTINCT bi.item_id AS itemId, bi.branch_id AS branchId, bi.status AS status " +
+            "FROM branch_inventory bi JOIN library_items li ON li.id = bi.item_id " +
+            "JOIN (SELECT DISTINCT item_id, branch_id FROM branch_inventory WHERE id IN (:copyIds)) c " +
+            "ON c.item_id = bi.item_id AND c.branch_id = bi.branch_id",
+            nativeQuery = true)
+    List<CopyStatusRow> findCopyStatusesAtBranchesOf(@Param("copyIds") Collection<Long> copyIds);
+
+    // ===== Conditional state transitions =====
+    // Each update only applies while the copy still has the status the caller read (compare-and-set),
+    // and returns the number of updated rows, so 0 means another request changed the copy first.
+
+    /**
+     * Mark a copy as rented, clearing any reservation.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BranchInventory bi SET bi.status = org.pollub.catalog.model.CopyStatus.RENTED, " +
+            "bi.rentedByUserId = :userId, bi.rentedAt = :rentedAt, bi.dueDate = :dueDate, bi.rentExtended = false, " +
+            "bi.reservedByUserId = NULL, bi.reservedAt = NULL, bi.reservationExpiresAt = NULL " +
+            "WHERE bi.id = :id AND bi.status = :expected")
+    int markRented(@Param("id") Long id,
+                   @Param("expected") CopyStatus expected,
+                   @Param("userId") Long userId,
+                   @Param("rentedAt") LocalDateTime rentedAt,
+                   @Param("dueDate") LocalDateTime dueDate);
+
+    /**
+     * Mark a copy as reserved.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BranchInventory bi SET bi.status = org.pollub.catalog.model.CopyStatus.RESERVED, " +
+            "bi.reservedByUserId = :userId, bi.reservedAt = :reservedAt, bi.reservationExpiresAt = :expiresAt " +
+            "WHERE bi.id = :id AND bi.status = :expected")
+    int markReserved(@Param("id") Long id,
+                     @Param("expected") CopyStatus expected,
+                     @Param("userId") Long userId,
+                     @Param("reservedAt") LocalDateTime reservedAt,
+                     @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Mark a copy as available again, clearing rental and reservation info.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BranchInventory bi SET bi.status = org.pollub.catalog.model.CopyStatus.AVAILABLE, " +
+            "bi.rentedByUserId = NULL, bi.rentedAt = NULL, bi.dueDate = NULL, bi.rentExtended = false, " +
+            "bi.reservedByUserId = NULL, bi.reservedAt = NULL, bi.reservationExpiresAt = NULL " +
+            "WHERE bi.id = :id AND bi.status = :expected")
+    int markAvailable(@Param("id") Long id, @Param("expected") CopyStatus expected);
+
+    /**
+     * Extend a rental that has not been extended yet.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BranchInventory bi SET bi.dueDate = :dueDate, bi.rentExtended = true " +
+            "WHERE bi.id = :id AND bi.status = org.pollub.catalog.model.CopyStatus.RENTED " +
+            "AND (bi.rentExtended = false OR bi.rentExtended IS NULL)")
+    int extendRental(@Param("id") Long id, @Param("dueDate") LocalDateTime dueDate);
+
+    /**
+     * Set a copy's status directly (admin override), leaving the other fields as they are.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BranchInventory bi SET bi.status = :status WHERE bi.id = :id AND bi.status = :expected")
+    int updateStatus(@Param("id") Long id, @Param("expected") CopyStatus expected, @Param("status") CopyStatus status);
 }
@@ -0,0 +1,83 @@
+package org.pollub.catalog.repository;
+
+import org.pollub.catalog.model.BranchStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for per-branch copy counts.
+ */
+@Repository
+public interface IBranchStockRepository extends JpaRepository<BranchStock, Long> {
+
+    /**
+     * Find the copy counts of an item at every branch that holds it.
+     */
+    List<BranchStock> findByItemId(Long itemId);
+
+    /**
+     * Find all branches where an item has an available copy.
+     */
+    @Query("SELECT s.branchId FROM BranchStock s WHERE s.itemId = :itemId AND s.availableCount > 0")
+    List<Long> findAvailableBranchIds(@Param("itemId") Long itemId);
+
+    /**
+     * Get item IDs with an available copy at a specific branch.
+     */
+    @Query("SELECT s.itemId FROM BranchStock s WHERE s.branchId = :branchId AND s.availableCount > 0")
+    List<Long> findAvailableItemIdsAtBranch(@Param("branchId") Long branchId);
+
+    /**
+     * Of the given items, find those with an available copy at any branch.
+     */
+    @Query("SELECT DISTINCT s.itemId FROM BranchStock s WHERE s.itemId IN :itemIds AND s.availableCount > 0")
+    List<Long> findAvailableItemIdsIn(@Param("itemIds") Collection<Long> itemIds);
+
+    /**
+     * Get the IDs of all items with an available copy at any branch.
+     */
+    @Query("SELECT DISTINCT s.itemId FROM BranchStock s WHERE s.availableCount > 0")
+    List<Long> findAvailableItemIds();
+
+    /**
+     * Check if an item has an available copy at a branch.
+     */
+    boolean existsByItemIdAndBranchIdAndAvailableCountGreaterThan(Long itemId, Long branchId, Integer count);
+
+    /**
+     * Atomically shift the available count of an item at a branch.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE BranchStock s SET s.availableCount = s.availableCount + :delta " +
+            "WHERE s.itemId = :itemId AND s.branchId = :branchId")
+    int adjustAvailable(@Param("itemId") Long itemId, @Param("branchId") Long branchId, @Param("delta") int delta);
+
+    /**
+     * Atomically add new available copies of an item at a branch, creating the counts row if needed.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO branch_stock (item_id, branch_id, total_count, available_count) " +
+            "VALUES (:itemId, :branchId, :copies, :copies) " +
+            "ON CONFLICT (item_id, branch_id) DO UPDATE SET " +
+            "total_count = branch_stock.total_count + EXCLUDED.total_count, " +
+            "available_count = branch_stock.available_count + EXCLUDED.available_count",
+            nativeQuery = true)
+    int addCopies(@Param("itemId") Long itemId, @Param("branchId") Long branchId, @Param("copies") int copies);
+
+    /**
+     * Create counts rows for item/branch pairs that have copies but no counts row yet.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO branch_stock (item_id, branch_id, total_count, available_count) " +
+            "SELECT bi.item_id, bi.branch_id, COUNT(*), COUNT(*) FILTER (WHERE bi.status = 'AVAILABLE') " +
+            "FROM branch_inventory bi GROUP BY bi.item_id, bi.branch_id " +
+            "ON CONFLICT (item_id, branch_id) DO NOTHING",
+            nativeQuery = true)
+    int backfillMissing();
+}
@@ -0,0 +1,100 @@
+package org.pollub.catalog.repository;
+
+import org.pollub.catalog.model.CatalogChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for the compacted catalog change log (see CatalogChange).
+ */
+@Repository
+public interface ICatalogChangeRepository extends JpaRepository<CatalogChange, Long> {
+
+    String UPSERT_PENDING =
+            " ON CONFLICT (entity_type, entity_id) DO UPDATE SET " +
+            "deleted = EXCLUDED.deleted, changed_at = EXCLUDED.changed_at, version = NULL";
+
+    /**
+     * Record a change of one entity.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO catalog_change_log (entity_type, entity_id, deleted, changed_at) " +
+            "VALUES (:entityType, :entityId, :deleted, now())" + UPSERT_PENDING,
+            nativeQuery = true)
+    int record(@Param("entityType") String entityType, @Param("entityId") Long entityId,
+               @Param("deleted") boolean deleted);
+
+    /**
+     * Record a change of the given items.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO catalog_change_log (entity_type, entity_id, deleted, changed_at) " +
+            "SELECT 'ITEM', li.id, false, now() FROM library_items li WHERE li.id IN (:itemIds)" + UPSERT_PENDING,
+            nativeQuery = true)
+    int recordItems(@Param("itemIds") Collection<Long> itemIds);
+
+    /**
+     * Record a change of every copy of the given items.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO catalog_change_log (entity_type, entity_id, deleted, changed_at) " +
+            "SELECT 'COPY', bi.id, false, now() FROM branch_inventory bi WHERE bi.item_id IN (:itemIds)" +
+            UPSERT_PENDING,
+            nativeQuery = true)
+    int recordCopiesOfItems(@Param("itemIds") Collection<Long> itemIds);
+
+    /**
+     * Record a change of the given copies.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO catalog_change_log (entity_type, entity_id, deleted, changed_at) " +
+            "SELECT 'COPY', bi.id, false, now() FROM branch_inventory bi WHERE bi.id IN (:copyIds)" + UPSERT_PENDING,
+            nativeQuery = true)
+    int recordCopies(@Param("copyIds") Collection<Long> copyIds);
+
+    /**
+     * Add entries for items and copies that have none yet, e.g. rows written before the log existed.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO catalog_change_log (entity_type, entity_id, deleted, changed_at) " +
+            "SELECT 'ITEM', li.id, false, now() FROM library_items li " +
+            "UNION ALL " +
+            "SELECT 'COPY', bi.id, false, now() FROM branch_inventory bi " +
+            "ON CONFLICT (entity_type, entity_id) DO NOTHING",
+            nativeQuery = true)
+    int backfillMissing();
+
+    /**
+     * Assign versions to entries changed since the last run.
+     * The transaction-scoped advisory lock lets one sequencer run at a time, and it is held until
+     * commit, so versions become visible in increasing order: a reader that has seen version N
+     * never later finds a new entry with a version below N.
+     * The pending rows are read before the lock is granted, so the UPDATE skips rows the previous
+     * holder has versioned in the meantime.
+     */
+    @Modifying
+    @Query(value = "WITH sequencer AS (SELECT pg_advisory_xact_lock(hashtext('catalog_change_log'))), " +
+            "pending AS (SELECT c.id FROM catalog_change_log c, sequencer WHERE c.version IS NULL) " +
+            "UPDATE catalog_change_log c SET version = nextval('catalog_change_version_seq') " +
+            "FROM pending p WHERE c.id = p.id AND c.version IS NULL",
+            nativeQuery = true)
+    int sequencePending();
+
+    /**
+     * Get entries with a version above since, oldest first.
+     */
+    List<CatalogChange> findByVersionGreaterThanOrderByVersionAsc(Long since, Limit limit);
+
+    /**
+     * Get the highest assigned version, or 0 if none.
+     */
+    @Query("SELECT COALESCE(MAX(c.version), 0) FROM CatalogChange c")
+    long findMaxVersion();
+}
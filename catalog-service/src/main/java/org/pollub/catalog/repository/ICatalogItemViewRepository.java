@@ -0,0 +1,131 @@
+package org.pollub.catalog.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.pollub.catalog.model.CatalogItemView;
+import org.pollub.catalog.model.CopyStatus;
+import org.pollub.catalog.repository.projection.FacetCountRow;
+import org.pollub.catalog.repository.projection.ItemFacetRow;
+import org.pollub.catalog.repository.projection.SuggestRow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Repository for the flattened catalog_item_view read model.
+ * Rows are only written by the native refresh queries below, which rebuild them from the JOINED tables.
+ */
+@Repository
+public interface ICatalogItemViewRepository extends JpaRepository<CatalogItemView, Long> {
+
+    String UPSERT_FROM_ITEMS =
+            "INSERT INTO catalog_item_view (id, item_type, title, description, image_url, release_year, " +
+            "is_bestseller, created_at, author, isbn, page_count, publisher, genre, director, duration_minutes) " +
+            "SELECT li.id, li.item_type, li.title, li.description, li.image_url, li.release_year, " +
+            "li.is_bestseller, li.created_at, b.author, b.isbn, b.page_count, b.publisher, " +
+            "coalesce(b.genre, m.genre), m.director, m.duration " +
+            "FROM library_items li " +
+            "LEFT JOIN books b ON b.id = li.id " +
+            "LEFT JOIN movie_discs m ON m.id = li.id ";
+
+    String ON_CONFLICT_REPLACE =
+            " ON CONFLICT (id) DO UPDATE SET item_type = EXCLUDED.item_type, title = EXCLUDED.title, " +
+            "description = EXCLUDED.description, image_url = EXCLUDED.image_url, " +
+            "release_year = EXCLUDED.release_year, is_bestseller = EXCLUDED.is_bestseller, " +
+            "created_at = EXCLUDED.created_at, author = EXCLUDED.author, isbn = EXCLUDED.isbn, " +
+            "page_count = EXCLUDED.page_count, publisher = EXCLUDED.publisher, genre = EXCLUDED.genre, " +
+            "director = EXCLUDED.director, duration_minutes = EXCLUDED.duration_minutes";
+
+    String SUGGEST_COLUMNS =
+            "SELECT v.id AS id, v.itemType AS itemType, v.title AS title, " +
+            "COALESCE(v.author, v.director) AS creator, v.publisher AS publisher, v.isbn AS isbn, " +
+            "v.isBestseller AS isBestseller FROM CatalogItemView v";
+
+    /**
+     * Get a page of bestseller items ordered by ID.
+     */
+    List<CatalogItemView> findByIsBestsellerTrueOrderByIdAsc(Pageable pageable);
+
+    /**
+     * Get all rows in id order from a database cursor. Must be consumed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<CatalogItemView> streamAllByOrderByIdAsc();
+
+    /**
+     * Rebuild the rows of the given items from the JOINED tables.
+     */
+    @Modifying
+    @Query(value = UPSERT_FROM_ITEMS + "WHERE li.id IN (:itemIds)" + ON_CONFLICT_REPLACE, nativeQuery = true)
+    int refresh(@Param("itemIds") Collection<Long> itemIds);
+
+    /**
+     * Create the rows of items that are not in the read model yet.
+     */
+    @Modifying
+    @Query(value = UPSERT_FROM_ITEMS +
+            "WHERE NOT EXISTS (SELECT 1 FROM catalog_item_view v WHERE v.id = li.id)" + ON_CONFLICT_REPLACE,
+            nativeQuery = true)
+    int refreshMissing();
+
+    /**
+     * Remove the rows of deleted items.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM catalog_item_view WHERE id IN (:itemIds)", nativeQuery = true)
+    int removeAll(@Param("itemIds") Collection<Long> itemIds);
+
+    /**
+     * Remove rows whose item no longer exists.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM catalog_item_view v " +
+            "WHERE NOT EXISTS (SELECT 1 FROM library_items li WHERE li.id = v.id)",
+            nativeQuery = true)
+    int removeOrphans();
+
+    /**
+     * Get the filterable attributes of all items.
+     */
+    @Query("SELECT v.id AS id, v.itemType AS itemType, v.genre AS genre, v.publisher AS publisher FROM CatalogItemView v")
+    List<ItemFacetRow> findAllFacets();
+
+    /**
+     * Get the filterable attributes of the given items.
+     */
+    @Query("SELECT v.id AS id, v.itemType AS itemType, v.genre AS genre, v.publisher AS publisher " +
+            "FROM CatalogItemView v WHERE v.id IN :itemIds")
+    List<ItemFacetRow> findFacetsByIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+    /**
+     * Count items per genre that have a copy with the given status at the branch, or at any branch when null.
+     */
+    @Query("SELECT v.genre AS value, COUNT(v) AS items FROM CatalogItemView v WHERE v.genre IS NOT NULL " +
+            "AND EXISTS (SELECT 1 FROM BranchInventory bi WHERE bi.itemId = v.id AND bi.status = :status " +
+            "AND (:branchId IS NULL OR bi.branchId = :branchId)) GROUP BY v.genre ORDER BY v.genre")
+    List<FacetCountRow> countByGenreWithCopyStatus(@Param("branchId") Long branchId, @Param("status") CopyStatus status);
+
+    /**
+     * Get the suggestion columns of all items from a database cursor. Must be consumed inside a transaction.
+     */
+    @Query(SUGGEST_COLUMNS)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<SuggestRow> streamSuggestRows();
+
+    /**
+     * Get the suggestion columns of the given items.
+     */
+    @Query(SUGGEST_COLUMNS + " WHERE v.id IN :itemIds")
+    List<SuggestRow> findSuggestRowsByIdIn(@Param("itemIds") Collection<Long> itemIds);
+}
@@ -0,0 +1,84 @@
+package org.pollub.catalog.repository;
+
+import org.pollub.catalog.model.LibraryItem;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Full-text search over library items, backed by the search_vector tsvector column
+ * and its GIN index, and fuzzy search backed by the search_folded column and its
+ * trigram GIN index (see SearchIndexInitializer). search_folded is written by SearchFoldingRepository.
+ */
+@Repository
+public interface ICatalogSearchRepository extends org.springframework.data.repository.Repository<LibraryItem, Long> {
+
+    String SEARCH_DOCUMENT =
+            "setweight(to_tsvector('simple', coalesce(li.title, '')), 'A') || " +
+            "setweight(to_tsvector('simple', coalesce(b.author, m.director, '')), 'A') || " +
+            "setweight(to_tsvector('simple', coalesce(b.isbn, '')), 'B') || " +
+            "setweight(to_tsvector('simple', coalesce(li.description, '')), 'C')";
+
+    String SEARCH_SOURCE =
+            "FROM library_items li " +
+            "LEFT JOIN books b ON b.id = li.id " +
+            "LEFT JOIN movie_discs m ON m.id = li.id ";
+
+    /**
+     * Get a page of item IDs matching the query, best ts_rank first.
+     */
+    @Query(value = "SELECT i.id FROM library_items i, websearch_to_tsquery('simple', :query) q " +
+            "WHERE i.search_vector @@ q " +
+            "ORDER BY ts_rank(i.search_vector, q) DESC, i.id ASC",
+            nativeQuery = true)
+    List<Long> searchItemIds(@Param("query") String query, Pageable pageable);
+
+    /**
+     * Get the IDs of books with the given canonical ISBN-13, from the isbn13 index.
+     */
+    @Query(value = "SELECT b.id FROM books b WHERE b.isbn13 = :isbn13 ORDER BY b.id", nativeQuery = true)
+    List<Long> findBookIdsByIsbn13(@Param("isbn13") String isbn13);
+
+    /**
+     * Get a page of item IDs whose folded title or author/director contains a word similar to the
+     * already folded query, most similar first. Candidates come from the trigram index, so misspelt
+     * words still match without comparing the query against every title.
+     */
+    @Query(value = "SELECT i.id FROM library_items i " +
+            "WHERE :query <% i.search_folded " +
+            "ORDER BY word_similarity(:query, i.search_folded) DESC, i.id ASC",
+            nativeQuery = true)
+    List<Long> fuzzySearchItemIds(@Param("query") String foldedQuery, Pageable pageable);
+
+    /**
+     * Set the word similarity a fuzzy match needs for the rest of the current transaction.
+     */
+    @Query(value = "SELECT set_config('pg_trgm.word_similarity_threshold', :threshold, true)",
+            nativeQuery = true)
+    String setWordSimilarityThreshold(@Param("threshold") String threshold);
+
+    /**
+     * Rebuild the search document of the given items.
+     */
+    @Modifying
+    @Query(value = "UPDATE library_items i SET search_vector = " + SEARCH_DOCUMENT + " " +
+            SEARCH_SOURCE +
+            "WHERE li.id = i.id AND i.id IN (:itemIds)",
+            nativeQuery = true)
+    int refreshSearchVectors(@Param("itemIds") Collection<Long> itemIds);
+
+    /**
+     * Build the search document of every item that does not have one yet.
+     */
+    @Modifying
+    @Query(value = "UPDATE library_items i SET search_vector = " + SEARCH_DOCUMENT + " " +
+            SEARCH_SOURCE +
+            "WHERE li.id = i.id AND i.search_vector IS NULL",
+            nativeQuery = true)
+    int refreshMissingSearchVectors();
+}
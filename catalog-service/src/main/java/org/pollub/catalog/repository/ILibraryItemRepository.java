@@ -11,4 +11,4 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface ILibraryItemRepository<T extends LibraryItem> extends JpaRepository<T, Long> {
     // Rental status queries are now in IBranchInventoryRepository
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package org.pollub.catalog.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.pollub.catalog.utils.TextFolding;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes the search_folded column used by fuzzy search: title and author/director folded by
+ * TextFolding in Java, the same code that folds the query, so both sides agree for every letter
+ * and independently of the database locale.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SearchFoldingRepository {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Recompute the folded text of the given items.
+     *
+     * @return number of items updated
+     */
+    public int refresh(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> updates = jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "SELECT li.id, coalesce(li.title, '') || ' ' || coalesce(b.author, m.director, '') " +
+                            "FROM library_items li " +
+                            "LEFT JOIN books b ON b.id = li.id " +
+                            "LEFT JOIN movie_discs m ON m.id = li.id " +
+                            "WHERE li.id = ANY(?)");
+            ps.setArray(1, connection.createArrayOf("bigint", itemIds.toArray()));
+            return ps;
+        }, (rs, rowNum) -> new Object[]{TextFolding.fold(rs.getString(2)), rs.getLong(1)});
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE library_items SET search_folded = ? WHERE id = ?", updates);
+        }
+        return updates.size();
+    }
+
+    /**
+     * Fold the text of every item that has no folded text yet, a batch at a time.
+     *
+     * @return number of items updated
+     */
+    public int refreshMissing() {
+        int total = 0;
+        List<Long> itemIds;
+        do {
+            itemIds = jdbcTemplate.queryForList(
+                    "SELECT id FROM library_items WHERE search_folded IS NULL ORDER BY id LIMIT ?",
+                    Long.class, BATCH_SIZE);
+            total += refresh(itemIds);
+        } while (itemIds.size() == BATCH_SIZE);
+        return total;
+    }
+}
@@ -0,0 +1,7 @@
+package org.pollub.catalog.repository.projection;
+
+/**
+ * Number of matching books sharing a genre, publisher and availability, used to count search facets.
+ */
+public record BookFacetRow(String genre, String publisher, Boolean available, Long books) {
+}
@@ -0,0 +1,10 @@
+package org.pollub.catalog.repository.projection;
+
+/**
+ * A status that at least one copy of an item at a branch is in, used to build the availability index.
+ */
+public interface CopyStatusRow {
+    Long getItemId();
+    Long getBranchId();
+    String getStatus();
+}
@@ -0,0 +1,9 @@
+package org.pollub.catalog.repository.projection;
+
+/**
+ * Number of items sharing one value of a filterable attribute, such as a genre.
+ */
+public interface FacetCountRow {
+    String getValue();
+    Long getItems();
+}
@@ -0,0 +1,11 @@
+package org.pollub.catalog.repository.projection;
+
+/**
+ * Item and branch holding copies of it, with the item's title and author, used to build history catalog data.
+ */
+public interface HistoryCatalogRow {
+    Long getItemId();
+    Long getBranchId();
+    String getTitle();
+    String getAuthor();
+}
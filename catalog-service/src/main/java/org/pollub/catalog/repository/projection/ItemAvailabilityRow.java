@@ -0,0 +1,13 @@
+package org.pollub.catalog.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Availability summary of one item: the earliest due date of its rented copies
+ * and the comma-separated IDs of branches with an available copy.
+ */
+public interface ItemAvailabilityRow {
+    Long getItemId();
+    LocalDateTime getEarliestDueDate();
+    String getAvailableBranchIds();
+}
@@ -0,0 +1,13 @@
+package org.pollub.catalog.repository.projection;
+
+import org.pollub.catalog.model.ItemType;
+
+/**
+ * Filterable attributes of an item, used to build the availability index.
+ */
+public interface ItemFacetRow {
+    Long getId();
+    ItemType getItemType();
+    String getGenre();
+    String getPublisher();
+}
@@ -0,0 +1,17 @@
+package org.pollub.catalog.repository.projection;
+
+import org.pollub.catalog.model.ItemType;
+
+/**
+ * Columns of an item indexed for search suggestions. Creator is the author of a book
+ * or the director of a movie.
+ */
+public interface SuggestRow {
+    Long getId();
+    ItemType getItemType();
+    String getTitle();
+    String getCreator();
+    String getPublisher();
+    String getIsbn();
+    Boolean getIsBestseller();
+}
@@ -0,0 +1,51 @@
+package org.pollub.catalog.runner;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.pollub.catalog.model.dto.ImportProgressDto;
+import org.pollub.catalog.service.ICatalogImportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Command line runner for bulk catalog import.
+ * Activated only when the 'import' profile is active; imports the JSON-lines file
+ * given by catalog.import.file once and exits.
+ * Runs after the schema and stock initializers, and after the ISBN backfill (IsbnIndexInitializer),
+ * whose unique index the import relies on to skip books already in the catalog.
+ */
+@Component
+@Profile("import")
+@Order(7)
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogImportRunner implements CommandLineRunner {
+
+    private final ICatalogImportService catalogImportService;
+    private final ApplicationContext applicationContext;
+
+    @Value("${catalog.import.file}")
+    private String importFile;
+
+    @Override
+    public void run(String... args) {
+        log.info("Starting catalog import of {}...", importFile);
+        try {
+            ImportProgressDto result = catalogImportService.importFile(Path.of(importFile));
+            log.info("Catalog import completed: {}", result);
+        } catch (Exception e) {
+            log.error("Catalog import failed.", e);
+            System.exit(1);
+        }
+        // Explicitly shutdown Spring context and exit
+        int exitCode = SpringApplication.exit(applicationContext, () -> 0);
+        System.exit(exitCode);
+    }
+}
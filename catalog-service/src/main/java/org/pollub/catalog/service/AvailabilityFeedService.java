@@ -0,0 +1,229 @@
+package org.pollub.catalog.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.pollub.catalog.model.dto.InventoryChangeEvent;
+import org.pollub.common.cache.InvalidationBus;
+import org.pollub.common.exception.FeedCapacityException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans inventory changes out to SSE subscribers, indexed by item and by branch so a change
+ * only visits the subscribers that asked for it.
+ * An idle subscriber holds no thread. Each subscriber has a small bounded queue drained on
+ * a virtual thread, so publishing never blocks on a slow client; a client whose queue
+ * overflows is disconnected and can resubscribe.
+ * Changes made through this instance are also published as bus events from within the writing
+ * transaction, so they reach the other replicas when it commits and a subscriber sees every change
+ * whichever replica it is connected to. The bus delivers at most once; changes sent while a replica
+ * was reconnecting are not pushed to its subscribers.
+ */
+@Service
+@Slf4j
+public class AvailabilityFeedService implements IAvailabilityFeedService {
+
+    private static final String EVENT_NAME = "inventory";
+    private static final String BUS_TOPIC = "availabilityFeed";
+
+    private final Map<Long, Set<Subscriber>> subscribersByItem = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Subscriber>> subscribersByBranch = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor();
+
+    private final Duration timeout;
+    private final int maxSubscribers;
+    private final int queueCapacity;
+    private final InvalidationBus invalidationBus;
+    private final ObjectMapper objectMapper;
+
+    public AvailabilityFeedService(InvalidationBus invalidationBus,
+                                   ObjectMapper objectMapper,
+                                   @Value("${availability-feed.timeout:30m}") Duration timeout,
+                                   @Value("${availability-feed.max-subscribers:20000}") int maxSubscribers,
+                                   @Value("${availability-feed.queue-capacity:32}") int queueCapacity,
+                                   @Value("${availability-feed.heartbeat:25s}") Duration heartbeat) {
+        this.timeout = timeout;
+        this.maxSubscribers = maxSubscribers;
+        this.queueCapacity = queueCapacity;
+        this.invalidationBus = invalidationBus;
+        this.objectMapper = objectMapper;
+        invalidationBus.subscribeEvents(BUS_TOPIC, this::onRemoteChange);
+        // Comments keep proxies from closing idle streams and reveal clients that went away
+        heartbeats.scheduleAtFixedRate(this::sendHeartbeats,
+                heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public SseEmitter subscribe(Long itemId, Long branchId) {
+        if (itemId == null && branchId == null) {
+            throw new IllegalArgumentException("itemId or branchId is required");
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new FeedCapacityException("Availability feed is full, please retry later.");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(itemId, branchId, emitter);
+        register(subscriber);
+
+        emitter.onCompletion(subscriber::remove);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscriber.remove());
+        return emitter;
+    }
+
+    /**
+     * Send a change to the other replicas; runs inside the writing transaction, which carries the event.
+     */
+    @EventListener
+    public void relay(InventoryChangeEvent event) {
+        try {
+            invalidationBus.publishEvent(BUS_TOPIC, objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            log.warn("Could not relay inventory change of copy {}: {}", event.getCopyId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Push a committed change to the matching subscribers of this replica.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChange(InventoryChangeEvent event) {
+        fanOut(event);
+    }
+
+    private void onRemoteChange(String payload) {
+        try {
+            fanOut(objectMapper.readValue(payload, InventoryChangeEvent.class));
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed inventory change from the bus: {}", e.getMessage());
+        }
+    }
+
+    private void fanOut(InventoryChangeEvent event) {
+        List<Subscriber> targets = new ArrayList<>();
+        targets.addAll(subscribersByItem.getOrDefault(event.getItemId(), Set.of()));
+        targets.addAll(subscribersByBranch.getOrDefault(event.getBranchId(), Set.of()));
+
+        for (Subscriber subscriber : targets) {
+            if (subscriber.matches(event)) {
+                subscriber.offer(SseEmitter.event().name(EVENT_NAME).data(event));
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    private void sendHeartbeats() {
+        for (Map<Long, Set<Subscriber>> index : List.of(subscribersByItem, subscribersByBranch)) {
+            index.values().forEach(subscribers ->
+                    subscribers.forEach(subscriber -> subscriber.offer(SseEmitter.event().comment("heartbeat"))));
+        }
+    }
+
+    // Item subscriptions are indexed by item, so a change visits only that item's subscribers
+    private void register(Subscriber subscriber) {
+        Map<Long, Set<Subscriber>> index = subscriber.itemId != null ? subscribersByItem : subscribersByBranch;
+        Long key = subscriber.itemId != null ? subscriber.itemId : subscriber.branchId;
+        index.compute(key, (id, subscribers) -> {
+            Set<Subscriber> result = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            result.add(subscriber);
+            return result;
+        });
+    }
+
+    private void unregister(Subscriber subscriber) {
+        Map<Long, Set<Subscriber>> index = subscriber.itemId != null ? subscribersByItem : subscribersByBranch;
+        Long key = subscriber.itemId != null ? subscriber.itemId : subscriber.branchId;
+        // Drop empty sets so keys of items nobody watches any more do not pile up
+        index.computeIfPresent(key, (id, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private final class Subscriber {
+        private final Long itemId;
+        private final Long branchId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean removed = new AtomicBoolean();
+
+        Subscriber(Long itemId, Long branchId, SseEmitter emitter) {
+            this.itemId = itemId;
+            this.branchId = branchId;
+            this.emitter = emitter;
+        }
+
+        boolean matches(InventoryChangeEvent event) {
+            return (itemId == null || itemId.equals(event.getItemId()))
+                    && (branchId == null || branchId.equals(event.getBranchId()));
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (!queue.offer(event)) {
+                log.debug("Disconnecting slow availability feed subscriber (item {}, branch {})", itemId, branchId);
+                remove();
+                emitter.complete();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while ((event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                remove();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // An event may have been queued after the last poll but before draining was reset
+            if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        void remove() {
+            if (removed.compareAndSet(false, true)) {
+                unregister(this);
+                subscriberCount.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,454 @@
+package org.pollub.catalog.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.pollub.catalog.config.HttpCacheConfig;
+import org.pollub.catalog.model.CatalogChange;
+import org.pollub.catalog.model.ChangeType;
+import org.pollub.catalog.model.CopyStatus;
+import org.pollub.catalog.model.ItemType;
+import org.pollub.catalog.model.dto.InventoryChangeEvent;
+import org.pollub.catalog.model.dto.SearchFacetsDto;
+import org.pollub.catalog.repository.IBranchInventoryRepository;
+import org.pollub.catalog.repository.ICatalogChangeRepository;
+import org.pollub.catalog.repository.ICatalogItemViewRepository;
+import org.pollub.catalog.repository.projection.CopyStatusRow;
+import org.pollub.catalog.repository.projection.ItemFacetRow;
+import org.pollub.common.web.ResourceVersions;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps compressed bitmaps of item IDs per (branch, copy status), per copy status at any branch,
+ * per item type, genre and publisher, so filters are answered by bitmap intersections instead of scans.
+ * The index is built from branch_inventory and catalog_item_view once the application is ready,
+ * then follows the catalog change log: each changed copy re-reads the statuses of its item at its
+ * branch. Following the log rather than local calls keeps every replica current, including after
+ * writes made by other instances or by the bulk import.
+ * All bitmap work happens on a single refresher thread; readers only take the read lock.
+ * The change log version the bitmaps reflect is part of the ETag of responses built from them
+ * (HttpCacheConfig.AVAILABILITY), as the inventory version is bumped at commit, before the index
+ * has applied the change.
+ */
+@Service
+@Slf4j
+public class AvailabilityIndexService implements IAvailabilityIndexService {
+
+    private final IBranchInventoryRepository inventoryRepository;
+    private final ICatalogItemViewRepository itemViewRepository;
+    private final ChangeLogFollower changeLog;
+    private final Duration refreshInterval;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicBoolean catchUpQueued = new AtomicBoolean();
+
+    // Guarded by lock
+    private Index index = new Index();
+    private volatile boolean ready;
+    private volatile long appliedVersion;
+
+    public AvailabilityIndexService(IBranchInventoryRepository inventoryRepository,
+                                    ICatalogItemViewRepository itemViewRepository,
+                                    ICatalogChangeRepository changeRepository,
+                                    ResourceVersions resourceVersions,
+                                    @Value("${availability-index.refresh-interval:1s}") Duration refreshInterval) {
+        this.inventoryRepository = inventoryRepository;
+        this.itemViewRepository = itemViewRepository;
+        this.changeLog = new ChangeLogFollower(changeRepository);
+        this.refreshInterval = refreshInterval;
+        resourceVersions.registerLocal(HttpCacheConfig.AVAILABILITY, this::appliedVersion);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        rebuild();
+        refresher.scheduleWithFixedDelay(this::catchUpSafely,
+                refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Apply local changes right after they commit instead of waiting for the next poll.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChange(InventoryChangeEvent event) {
+        if (ready && catchUpQueued.compareAndSet(false, true)) {
+            refresher.execute(this::catchUpSafely);
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public long appliedVersion() {
+        return appliedVersion;
+    }
+
+    @Override
+    public void rebuild() {
+        refresher.execute(() -> {
+            try {
+                load();
+            } catch (Exception e) {
+                log.error("Failed to build availability index", e);
+            }
+        });
+    }
+
+    @Override
+    public List<Long> findItemIds(Long branchId, CopyStatus status, String genre, String publisher,
+                                  long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matches = match(branchId, status, genre, publisher);
+            long end = Math.min(offset + limit, matches.getLongCardinality());
+            List<Long> itemIds = new ArrayList<>();
+            for (long rank = offset; rank < end; rank++) {
+                itemIds.add(Integer.toUnsignedLong(matches.select((int) rank)));
+            }
+            return itemIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int countItems(Long branchId, CopyStatus status, String genre, String publisher) {
+        lock.readLock().lock();
+        try {
+            return match(branchId, status, genre, publisher).getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Integer> countByGenre(Long branchId, CopyStatus status) {
+        lock.readLock().lock();
+        try {
+            return countBy(index.byGenre, index.statusBitmap(branchId, status));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Integer> countByPublisher(Long branchId, CopyStatus status) {
+        lock.readLock().lock();
+        try {
+            return countBy(index.byPublisher, index.statusBitmap(branchId, status));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public SearchFacetsDto countFacets(ItemType itemType, RoaringBitmap itemIds, int maxValues) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap base = itemType != null
+                    ? index.byItemType.getOrDefault(itemType.name(), new RoaringBitmap())
+                    : index.allItems();
+            if (itemIds != null) {
+                base = RoaringBitmap.and(base, itemIds);
+            }
+            long total = base.getLongCardinality();
+            long available = RoaringBitmap.andCardinality(base, index.statusBitmap(null, CopyStatus.AVAILABLE));
+
+            Map<String, Long> availability = new LinkedHashMap<>();
+            availability.put("AVAILABLE", available);
+            availability.put("UNAVAILABLE", total - available);
+
+            return SearchFacetsDto.builder()
+                    .total(total)
+                    .genres(topCounts(index.byGenre, base, maxValues))
+                    .publishers(topCounts(index.byPublisher, base, maxValues))
+                    .itemTypes(topCounts(index.byItemType, base, maxValues))
+                    .availability(availability)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap match(Long branchId, CopyStatus status, String genre, String publisher) {
+        RoaringBitmap matches = index.statusBitmap(branchId, status);
+        if (genre != null) {
+            matches = RoaringBitmap.and(matches, index.byGenre.getOrDefault(genre, new RoaringBitmap()));
+        }
+        if (publisher != null) {
+            matches = RoaringBitmap.and(matches, index.byPublisher.getOrDefault(publisher, new RoaringBitmap()));
+        }
+        return matches;
+    }
+
+    private static Map<String, Integer> countBy(Map<String, RoaringBitmap> bitmaps, RoaringBitmap base) {
+        Map<String, Integer> counts = new TreeMap<>();
+        bitmaps.forEach((key, bitmap) -> {
+            int count = RoaringBitmap.andCardinality(base, bitmap);
+            if (count > 0) {
+                counts.put(key, count);
+            }
+        });
+        return counts;
+    }
+
+    private static Map<String, Long> topCounts(Map<String, RoaringBitmap> bitmaps, RoaringBitmap base,
+                                               int maxValues) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        bitmaps.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), (long) RoaringBitmap.andCardinality(base, entry.getValue())))
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(maxValues)
+                .forEach(entry -> counts.put(entry.getKey(), entry.getValue()));
+        return counts;
+    }
+
+    /**
+     * Build a fresh index and swap it in. Changes sequenced after the snapshot version are
+     * replayed by the next catch-up; replaying a change already in the snapshot is harmless.
+     */
+    private void load() {
+        long started = System.currentTimeMillis();
+        long version = changeLog.latestVersion();
+
+        Index fresh = new Index();
+        for (CopyStatusRow row : inventoryRepository.findCopyStatuses()) {
+            fresh.setStatus(row.getBranchId(), CopyStatus.valueOf(row.getStatus()), key(row.getItemId()));
+        }
+        for (ItemFacetRow row : itemViewRepository.findAllFacets()) {
+            fresh.setFacets(key(row.getId()), row.getItemType(), row.getGenre(), row.getPublisher());
+        }
+        fresh.runOptimize();
+
+        lock.writeLock().lock();
+        try {
+            index = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        changeLog.startAt(version);
+        appliedVersion = version;
+        ready = true;
+        log.info("Built availability index up to change {} in {} ms",
+                version, System.currentTimeMillis() - started);
+    }
+
+    private void catchUpSafely() {
+        catchUpQueued.set(false);
+        if (!ready) {
+            return;
+        }
+        try {
+            changeLog.poll(this::apply);
+        } catch (Exception e) {
+            log.warn("Failed to update availability index", e);
+        }
+    }
+
+    private void apply(List<CatalogChange> changes) {
+        Set<Long> copyIds = new HashSet<>();
+        Set<Long> changedItemIds = new HashSet<>();
+        Set<Long> deletedItemIds = new HashSet<>();
+        for (CatalogChange change : changes) {
+            if (change.getEntityType() == ChangeType.COPY) {
+                copyIds.add(change.getEntityId());
+            } else if (change.getDeleted()) {
+                deletedItemIds.add(change.getEntityId());
+            } else {
+                changedItemIds.add(change.getEntityId());
+            }
+        }
+
+        // Read outside the lock so readers are only blocked while bitmaps change
+        List<CopyStatusRow> statuses = copyIds.isEmpty()
+                ? List.of() : inventoryRepository.findCopyStatusesAtBranchesOf(copyIds);
+        List<ItemFacetRow> facets = changedItemIds.isEmpty()
+                ? List.of() : itemViewRepository.findFacetsByIdIn(changedItemIds);
+
+        lock.writeLock().lock();
+        try {
+            applyStatuses(statuses);
+            for (Long itemId : changedItemIds) {
+                index.clearFacets(key(itemId));
+            }
+            for (ItemFacetRow row : facets) {
+                index.setFacets(key(row.getId()), row.getItemType(), row.getGenre(), row.getPublisher());
+            }
+            for (Long itemId : deletedItemIds) {
+                index.clearItem(key(itemId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        appliedVersion = changes.getLast().getVersion();
+    }
+
+    /**
+     * Replace the statuses of each (item, branch) pair in the rows; every pair that still
+     * has copies has at least one row.
+     */
+    private void applyStatuses(List<CopyStatusRow> rows) {
+        Map<Long, Map<Integer, Set<CopyStatus>>> byBranch = new HashMap<>();
+        for (CopyStatusRow row : rows) {
+            byBranch.computeIfAbsent(row.getBranchId(), id -> new HashMap<>())
+                    .computeIfAbsent(key(row.getItemId()), id -> EnumSet.noneOf(CopyStatus.class))
+                    .add(CopyStatus.valueOf(row.getStatus()));
+        }
+
+        Set<Integer> touchedItems = new HashSet<>();
+        byBranch.forEach((branchId, itemStatuses) -> itemStatuses.forEach((item, present) -> {
+            for (CopyStatus status : CopyStatus.values()) {
+                if (present.contains(status)) {
+                    index.setStatus(branchId, status, item);
+                } else {
+                    index.clearStatus(branchId, status, item);
+                }
+            }
+            touchedItems.add(item);
+        }));
+        touchedItems.forEach(index::refreshAnywhere);
+    }
+
+    private static int key(Long itemId) {
+        return Math.toIntExact(itemId);
+    }
+
+    /**
+     * The bitmaps themselves. Not thread-safe; guarded by the enclosing lock.
+     */
+    private static final class Index {
+
+        private final Map<Long, Map<CopyStatus, RoaringBitmap>> byBranch = new HashMap<>();
+        private final Map<CopyStatus, RoaringBitmap> anywhere = new EnumMap<>(CopyStatus.class);
+        private final Map<String, RoaringBitmap> byGenre = new HashMap<>();
+        private final Map<String, RoaringBitmap> byPublisher = new HashMap<>();
+        private final Map<String, RoaringBitmap> byItemType = new HashMap<>();
+
+        private final Map<Integer, String> itemTypeOf = new HashMap<>();
+        private final Map<Integer, String> genreOf = new HashMap<>();
+        private final Map<Integer, String> publisherOf = new HashMap<>();
+
+        RoaringBitmap statusBitmap(Long branchId, CopyStatus status) {
+            Map<CopyStatus, RoaringBitmap> bitmaps = branchId == null ? anywhere : byBranch.get(branchId);
+            RoaringBitmap bitmap = bitmaps == null ? null : bitmaps.get(status);
+            return bitmap != null ? bitmap : new RoaringBitmap();
+        }
+
+        void setStatus(Long branchId, CopyStatus status, int item) {
+            byBranch.computeIfAbsent(branchId, id -> new EnumMap<>(CopyStatus.class))
+                    .computeIfAbsent(status, s -> new RoaringBitmap())
+                    .add(item);
+            anywhere.computeIfAbsent(status, s -> new RoaringBitmap()).add(item);
+        }
+
+        void clearStatus(Long branchId, CopyStatus status, int item) {
+            Map<CopyStatus, RoaringBitmap> bitmaps = byBranch.get(branchId);
+            if (bitmaps != null && bitmaps.containsKey(status)) {
+                bitmaps.get(status).remove(item);
+            }
+        }
+
+        /**
+         * Recompute the any-branch bits of an item from its per-branch bits.
+         */
+        void refreshAnywhere(int item) {
+            for (CopyStatus status : CopyStatus.values()) {
+                boolean present = byBranch.values().stream()
+                        .map(bitmaps -> bitmaps.get(status))
+                        .anyMatch(bitmap -> bitmap != null && bitmap.contains(item));
+                RoaringBitmap bitmap = anywhere.computeIfAbsent(status, s -> new RoaringBitmap());
+                if (present) {
+                    bitmap.add(item);
+                } else {
+                    bitmap.remove(item);
+                }
+            }
+        }
+
+        RoaringBitmap allItems() {
+            return RoaringBitmap.or(byItemType.values().iterator());
+        }
+
+        void setFacets(int item, ItemType itemType, String genre, String publisher) {
+            if (itemType != null) {
+                byItemType.computeIfAbsent(itemType.name(), t -> new RoaringBitmap()).add(item);
+                itemTypeOf.put(item, itemType.name());
+            }
+            if (genre != null) {
+                byGenre.computeIfAbsent(genre, g -> new RoaringBitmap()).add(item);
+                genreOf.put(item, genre);
+            }
+            if (publisher != null) {
+                byPublisher.computeIfAbsent(publisher, p -> new RoaringBitmap()).add(item);
+                publisherOf.put(item, publisher);
+            }
+        }
+
+        void clearFacets(int item) {
+            remove(byItemType, itemTypeOf.remove(item), item);
+            remove(byGenre, genreOf.remove(item), item);
+            remove(byPublisher, publisherOf.remove(item), item);
+        }
+
+        void clearItem(int item) {
+            clearFacets(item);
+            byBranch.values().forEach(bitmaps -> bitmaps.values().forEach(bitmap -> bitmap.remove(item)));
+            anywhere.values().forEach(bitmap -> bitmap.remove(item));
+        }
+
+        void runOptimize() {
+            byBranch.values().forEach(bitmaps -> bitmaps.values().forEach(RoaringBitmap::runOptimize));
+            anywhere.values().forEach(RoaringBitmap::runOptimize);
+            byGenre.values().forEach(RoaringBitmap::runOptimize);
+            byPublisher.values().forEach(RoaringBitmap::runOptimize);
+            byItemType.values().forEach(RoaringBitmap::runOptimize);
+        }
+
+        private static void remove(Map<String, RoaringBitmap> bitmaps, String key, int item) {
+            if (key == null) {
+                return;
+            }
+            RoaringBitmap bitmap = bitmaps.get(key);
+            if (bitmap != null) {
+                bitmap.remove(item);
+                if (bitmap.isEmpty()) {
+                    bitmaps.remove(key);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.pollub.catalog.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the sort order, the sort key and the id of the last book on a page.
+ */
+record BookCursor(BookSortOrder sortOrder, String key, Long id) {
+
+    private static final String SEPARATOR = "\n";
+
+    /**
+     * Cursor pointing after the given book in the given order.
+     */
+    static BookCursor of(BookSortOrder sortOrder, Long id, String title, String author) {
+        String key = switch (sortOrder) {
+            case TITLE_ASC, TITLE_DESC -> title;
+            case AUTHOR_ASC, AUTHOR_DESC -> author;
+            case ID -> null;
+        };
+        return new BookCursor(sortOrder, key, id);
+    }
+
+    String encode() {
+        String raw = sortOrder.name() + SEPARATOR + id + SEPARATOR + (key != null ? key : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static BookCursor decode(String cursor, BookSortOrder expectedOrder) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 3);
+            BookSortOrder sortOrder = BookSortOrder.valueOf(parts[0]);
+            if (sortOrder != expectedOrder) {
+                throw new IllegalArgumentException("Cursor was issued for sort " + sortOrder);
+            }
+            return new BookCursor(sortOrder, parts[2], Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.pollub.catalog.service;
+
+import lombok.RequiredArgsConstructor;
+import org.pollub.catalog.config.CacheConfig;
+import org.pollub.catalog.model.dto.CatalogItemChangeEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Clears the genre and publisher dictionaries once an item write has committed.
+ * Evicting inside the write transaction would let a concurrent reader cache the
+ * pre-commit dictionaries again until they expire.
+ */
+@Component
+@RequiredArgsConstructor
+class BookFacetsEvictor {
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChange(CatalogItemChangeEvent event) {
+        Cache facets = cacheManager.getCache(CacheConfig.BOOK_FACETS);
+        if (facets != null) {
+            facets.clear();
+        }
+    }
+}
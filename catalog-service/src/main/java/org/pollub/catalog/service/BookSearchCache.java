@@ -0,0 +1,139 @@
+package org.pollub.catalog.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.pollub.catalog.config.HttpCacheConfig;
+import org.pollub.common.web.ResourceVersions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of book search result pages. Only the IDs of a page and the total count are kept;
+ * rows are loaded again by primary key, which is far cheaper than the filtered, sorted and counted search.
+ * Entries are tied to the catalog version, so any book write on any replica invalidates them: locally at
+ * commit, elsewhere as soon as the invalidation bus delivers the new version. Copy status writes do not, as search results
+ * only depend on book rows.
+ * Hit ratio, evictions and size are published as cache.* metrics under cache=bookSearch, along with
+ * the estimated memory footprint as cache.memory.estimated.
+ */
+@Component
+class BookSearchCache {
+
+    private static final String NAME = "bookSearch";
+
+    // Estimated bytes of an entry besides its IDs and key strings
+    private static final int ENTRY_OVERHEAD_BYTES = 160;
+
+    private final Cache<Key, Result> cache;
+    private final ResourceVersions resourceVersions;
+    // Catalog version of the current entries
+    private volatile long version = -1;
+
+    BookSearchCache(ResourceVersions resourceVersions, MeterRegistry meterRegistry,
+                    @Value("${book-search-cache.max-memory:16MB}") DataSize maxMemory) {
+        this.resourceVersions = resourceVersions;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxMemory.toBytes())
+                .weigher((Key key, Result result) -> key.estimatedBytes() + result.estimatedBytes())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+        Gauge.builder("cache.memory.estimated", cache, c -> c.policy().eviction()
+                        .map(eviction -> eviction.weightedSize().orElse(0))
+                        .orElse(0L))
+                .tag("cache", NAME)
+                .baseUnit("bytes")
+                .description("Estimated memory held by the cached entries")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get a search page from the cache, or run the search and remember its IDs.
+     *
+     * @param load   loads the rows of the given IDs, in any order
+     * @param search runs the search itself
+     */
+    <T> Page<T> get(String query, String publisher, List<String> genres, BookSortOrder sortOrder, Pageable pageable,
+                    Function<List<Long>, List<T>> load, Supplier<Page<T>> search, Function<T, Long> idOf) {
+        long current = currentVersion();
+        Key key = Key.of(current, query, publisher, genres, sortOrder, pageable);
+
+        Result cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return new PageImpl<>(inOrder(cached.ids(), load.apply(cached.ids()), idOf), pageable, cached.total());
+        }
+
+        Page<T> page = search.get();
+        cache.put(key, new Result(page.getContent().stream().map(idOf).toList(), page.getTotalElements()));
+        return page;
+    }
+
+    private long currentVersion() {
+        long current = resourceVersions.current(HttpCacheConfig.CATALOG);
+        if (current != version) {
+            // Entries of older versions can no longer be hit; free their memory at once
+            version = current;
+            cache.invalidateAll();
+        }
+        return current;
+    }
+
+    private static <T> List<T> inOrder(List<Long> ids, Collection<T> rows, Function<T, Long> idOf) {
+        Map<Long, T> rowsById = new HashMap<>();
+        rows.forEach(row -> rowsById.put(idOf.apply(row), row));
+        return ids.stream()
+                .map(rowsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private record Key(long version, String query, String publisher, List<String> genres, BookSortOrder sortOrder,
+                       int page, int size) {
+
+        /**
+         * Normalize the filters the way the search applies them, so equivalent requests share an entry.
+         */
+        static Key of(long version, String query, String publisher, List<String> genres, BookSortOrder sortOrder,
+                      Pageable pageable) {
+            return new Key(version,
+                    query == null || query.isBlank() ? null : query.trim().toLowerCase(Locale.ROOT),
+                    publisher == null || publisher.isBlank() ? null : publisher.toLowerCase(Locale.ROOT),
+                    genres == null ? List.of() : List.copyOf(new TreeSet<>(genres)),
+                    sortOrder, pageable.getPageNumber(), pageable.getPageSize());
+        }
+
+        int estimatedBytes() {
+            int chars = (query != null ? query.length() : 0) + (publisher != null ? publisher.length() : 0);
+            for (String genre : genres) {
+                chars += genre.length();
+            }
+            return 2 * chars;
+        }
+    }
+
+    private record Result(List<Long> ids, long total) {
+
+        int estimatedBytes() {
+            // A boxed Long and its reference per ID
+            return ENTRY_OVERHEAD_BYTES + 24 * ids.size();
+        }
+    }
+}
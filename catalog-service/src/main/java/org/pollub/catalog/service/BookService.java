@@ -1,37 +1,80 @@
 package org.pollub.catalog.service;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.pollub.catalog.config.CacheConfig;
+import org.pollub.catalog.config.IsbnIndexInitializer;
 import org.pollub.catalog.model.Book;
-import org.pollub.catalog.model.BranchInventory;
 import org.pollub.catalog.model.CopyStatus;
 import org.pollub.catalog.model.ItemStatus;
+import org.pollub.catalog.model.ItemType;
 import org.pollub.catalog.model.dto.BookAvailabilityDto;
 import org.pollub.catalog.model.dto.BookCreateDto;
+import org.pollub.catalog.model.dto.BookSummaryDto;
+import org.pollub.catalog.model.dto.CatalogItemChangeEvent;
+import org.pollub.catalog.model.dto.CursorPage;
+import org.pollub.catalog.model.dto.ItemAvailabilityDto;
+import org.pollub.catalog.model.dto.SearchFacetsDto;
+import org.pollub.catalog.repository.BookSpecifications;
+import org.pollub.catalog.repository.BookSummaryRepository;
 import org.pollub.catalog.repository.IBranchInventoryRepository;
 import org.pollub.catalog.repository.IBookRepository;
+import org.pollub.catalog.repository.projection.BookFacetRow;
+import org.pollub.catalog.repository.projection.ItemAvailabilityRow;
+import org.pollub.catalog.utils.IsbnNormalizer;
+import org.pollub.common.cache.InvalidationBus;
+import org.pollub.common.exception.BookAlreadyExistsException;
 import org.pollub.common.exception.ResourceNotFoundException;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class BookService implements IBookService {
+
+    private static final int MAX_FACET_VALUES = 50;
+    private static final int MAX_AVAILABILITY_BATCH = 500;
+
     private final IBookRepository bookRepository;
+    private final BookSummaryRepository bookSummaryRepository;
     private final IBranchInventoryRepository inventoryRepository;
+    private final IAvailabilityIndexService availabilityIndex;
+    private final BookSearchCache searchCache;
+    private final InvalidationBus invalidationBus;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     @Override
@@ -39,17 +82,36 @@ public class BookService implements IBookService {
         return bookRepository.findAll();
     }
 
+    @Override
+    public void forEachBook(Consumer<Book> action) {
+        try (Stream<Book> books = bookRepository.streamAllByOrderByIdAsc()) {
+            books.forEach(book -> {
+                action.accept(book);
+                entityManager.detach(book);
+            });
+        }
+    }
+
     @Override
     public Page<Book> getBooksPaginated(int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("id").ascending());
         return bookRepository.findAll(pageable);
     }
 
+    @Override
+    public Page<BookSummaryDto> getBookSummariesPaginated(int page, int size) {
+        return findSummaryPage(Specification.where(null), PageRequest.of(page, size, Sort.by("id").ascending()));
+    }
+
     @Override
     public Book createBook(BookCreateDto dto) {
+        checkIsbnAvailable(dto.getIsbn(), null);
         Book book = new Book();
         mapBookFromDto(book, dto);
-        return saveOrThrow(book);
+        Book savedBook = saveOrThrow(book);
+        publishItemChange(savedBook.getId(), false);
+        invalidationBus.publish(CacheConfig.BOOK_FACETS);
+        return savedBook;
     }
 
     @Override
@@ -76,8 +138,12 @@ public class BookService implements IBookService {
     @Override
     public Book updateBook(Long id, BookCreateDto dto) {
         var book = findById(id);
+        checkIsbnAvailable(dto.getIsbn(), id);
         mapBookFromDto(book, dto);
-        return saveOrThrow(book);
+        Book savedBook = saveOrThrow(book);
+        publishItemChange(savedBook.getId(), false);
+        invalidationBus.publish(CacheConfig.BOOK_FACETS);
+        return savedBook;
     }
 
     @Override
@@ -86,10 +152,18 @@ public class BookService implements IBookService {
             throw new ResourceNotFoundException("Book not found");
         }
         bookRepository.deleteById(id);
+        bookRepository.flush();
+        publishItemChange(id, true);
+        invalidationBus.publish(CacheConfig.BOOK_FACETS);
     }
 
     @Override
     public List<Book> findByIsbn(String isbn) {
+        // Any form of a valid ISBN is one index lookup; anything else can only match as stored
+        String isbn13 = IsbnNormalizer.toIsbn13(isbn);
+        if (isbn13 != null) {
+            return bookRepository.findByIsbn13(isbn13);
+        }
         return bookRepository.findByIsbn(isbn);
     }
 
@@ -105,50 +179,236 @@ public class BookService implements IBookService {
         book.setDescription(dto.getDescription());
     }
     
+    /**
+     * Reject a book whose ISBN, in any form, already belongs to another book (the ISBN key is unique).
+     */
+    private void checkIsbnAvailable(String isbn, Long bookId) {
+        if (isbn == null) {
+            return;
+        }
+        boolean taken = findByIsbn(isbn).stream().anyMatch(other -> !other.getId().equals(bookId));
+        if (taken) {
+            throw new BookAlreadyExistsException(isbn);
+        }
+    }
+
     private Book saveOrThrow(Book book) {
-        Book savedBook = bookRepository.save(book);
+        Book savedBook;
+        try {
+            // Flushed here so a concurrent write of the same ISBN surfaces as a conflict, not later as a 500
+            savedBook = bookRepository.saveAndFlush(book);
+        } catch (DataIntegrityViolationException e) {
+            if (e.getCause() instanceof ConstraintViolationException violation
+                    && IsbnIndexInitializer.ISBN_KEY_INDEX.equals(violation.getConstraintName())) {
+                throw new BookAlreadyExistsException(book.getIsbn());
+            }
+            throw e;
+        }
         return Optional.of(savedBook)
                 .orElseThrow(() -> new PersistenceException("Failed to save the book."));
     }
 
+    private void publishItemChange(Long id, boolean deleted) {
+        eventPublisher.publishEvent(CatalogItemChangeEvent.builder().itemId(id).deleted(deleted).build());
+    }
+
     @Override
-    public Page<Book> searchBooks(String query, ItemStatus status, String publisher, String genres, int page, int size, String sort) {
+    public Page<Book> searchBooks(String query, ItemStatus status, String publisher, List<String> genres, int page, int size, String sort) {
+        BookSortOrder sortOrder = BookSortOrder.from(sort);
+        Pageable pageable = PageRequest.of(page, size, sortOrder.toSort());
+        return searchCache.get(query, publisher, genres, sortOrder, pageable,
+                bookRepository::findAllById,
+                () -> bookRepository.findAll(buildSearchSpec(query, publisher, genres), pageable),
+                Book::getId);
+    }
 
-        Sort sortSpec;
-        if ("TITLE_ASC".equals(sort)) {
-            sortSpec = Sort.by("title").ascending();
-        } else if ("TITLE_DESC".equals(sort)) {
-            sortSpec = Sort.by("title").descending();
-        } else if ("AUTHOR_ASC".equals(sort)) {
-            sortSpec = Sort.by("author").ascending();
-        } else if ("AUTHOR_DESC".equals(sort)) {
-            sortSpec = Sort.by("author").descending();
-        } else {
-            sortSpec = Sort.by("id").ascending();
-        }
+    @Override
+    public Page<BookSummaryDto> searchBookSummaries(String query, ItemStatus status, String publisher, List<String> genres,
+                                                    int page, int size, String sort) {
+        BookSortOrder sortOrder = BookSortOrder.from(sort);
+        Pageable pageable = PageRequest.of(page, size, sortOrder.toSort());
+        return searchCache.get(query, publisher, genres, sortOrder, pageable,
+                ids -> bookSummaryRepository.findAll(BookSpecifications.idIn(ids), Sort.unsorted(), 0, ids.size()),
+                () -> findSummaryPage(buildSearchSpec(query, publisher, genres), pageable),
+                BookSummaryDto::getId);
+    }
+
+    @Override
+    public CursorPage<Book> getBooksAfter(String cursor, int size, boolean includeTotal) {
+        return findPageAfter(Specification.where(null), BookSortOrder.ID, cursor, size,
+                includeTotal ? estimateTotal() : null, this::findBooks, BookService::bookCursor);
+    }
+
+    @Override
+    public CursorPage<BookSummaryDto> getBookSummariesAfter(String cursor, int size, boolean includeTotal) {
+        return findPageAfter(Specification.where(null), BookSortOrder.ID, cursor, size,
+                includeTotal ? estimateTotal() : null, this::findSummaries, BookService::summaryCursor);
+    }
+
+    @Override
+    public CursorPage<Book> searchBooksAfter(String query, ItemStatus status, String publisher, List<String> genres,
+                                             String cursor, int size, String sort, boolean includeTotal) {
+        Specification<Book> spec = buildSearchSpec(query, publisher, genres);
+        Long total = includeTotal ? bookRepository.count(spec) : null;
+        return findPageAfter(spec, BookSortOrder.from(sort), cursor, size, total, this::findBooks, BookService::bookCursor);
+    }
 
-        Pageable pageable = PageRequest.of(page, size, sortSpec);
+    @Override
+    public CursorPage<BookSummaryDto> searchBookSummariesAfter(String query, ItemStatus status, String publisher,
+                                                               List<String> genres, String cursor, int size,
+                                                               String sort, boolean includeTotal) {
+        Specification<Book> spec = buildSearchSpec(query, publisher, genres);
+        Long total = includeTotal ? bookRepository.count(spec) : null;
+        return findPageAfter(spec, BookSortOrder.from(sort), cursor, size, total, this::findSummaries,
+                BookService::summaryCursor);
+    }
 
-        String queryParam = (query != null && !query.isBlank()) ? query : null;
-        String publisherParam = (publisher != null && !publisher.isBlank()) ? publisher : null;
-        String genresParam = (genres != null && !genres.isEmpty()) ? genres : null;
+    private Long estimateTotal() {
+        Long estimate = bookRepository.estimateCount();
+        return estimate != null && estimate > 0 ? estimate : bookRepository.count();
+    }
 
+    private Specification<Book> buildSearchSpec(String query, String publisher, List<String> genres) {
         // Note: Status filtering is now based on inventory, not book entity
-        // For now, we search without status filter and filter post-query if needed
-        return bookRepository.searchBooksWithoutStatus(queryParam, publisherParam, genresParam, pageable);
+        Specification<Book> spec = Specification.where(null);
+        if (query != null && !query.isBlank()) {
+            spec = spec.and(BookSpecifications.titleOrAuthorContains(query.trim()));
+        }
+        if (publisher != null && !publisher.isBlank()) {
+            spec = spec.and(BookSpecifications.publisherEquals(publisher));
+        }
+        if (genres != null && !genres.isEmpty()) {
+            spec = spec.and(BookSpecifications.genreIn(genres));
+        }
+        return spec;
+    }
+
+    private Page<BookSummaryDto> findSummaryPage(Specification<Book> spec, Pageable pageable) {
+        List<BookSummaryDto> content = bookSummaryRepository.findAll(
+                spec, pageable.getSort(), pageable.getOffset(), pageable.getPageSize());
+        return PageableExecutionUtils.getPage(content, pageable, () -> bookRepository.count(spec));
+    }
+
+    private List<Book> findBooks(Specification<Book> spec, Sort sort, int limit) {
+        return bookRepository.findBy(spec, q -> q.sortBy(sort).limit(limit).all());
+    }
+
+    private List<BookSummaryDto> findSummaries(Specification<Book> spec, Sort sort, int limit) {
+        return bookSummaryRepository.findAll(spec, sort, 0, limit);
+    }
+
+    private static BookCursor bookCursor(BookSortOrder sortOrder, Book book) {
+        return BookCursor.of(sortOrder, book.getId(), book.getTitle(), book.getAuthor());
+    }
+
+    private static BookCursor summaryCursor(BookSortOrder sortOrder, BookSummaryDto book) {
+        return BookCursor.of(sortOrder, book.getId(), book.getTitle(), book.getAuthor());
+    }
+
+    /**
+     * Loads up to limit rows of a keyset page, as entities or as projections.
+     */
+    @FunctionalInterface
+    private interface RowFetcher<T> {
+        List<T> fetch(Specification<Book> spec, Sort sort, int limit);
+    }
+
+    /**
+     * Fetch one keyset page: size + 1 rows tell whether there is a next page, with no COUNT query.
+     */
+    private <T> CursorPage<T> findPageAfter(Specification<Book> spec, BookSortOrder sortOrder, String cursor,
+                                            int size, Long totalEstimate, RowFetcher<T> fetcher,
+                                            BiFunction<BookSortOrder, T, BookCursor> cursorOf) {
+        String keyProperty = sortOrder == BookSortOrder.ID ? null : sortOrder.property();
+        if (cursor != null && !cursor.isBlank()) {
+            BookCursor after = BookCursor.decode(cursor, sortOrder);
+            spec = spec.and(BookSpecifications.after(keyProperty, sortOrder.isDescending(), after.key(), after.id()));
+        }
+
+        List<T> rows = fetcher.fetch(spec, sortOrder.toSort(), size + 1);
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = hasNext ? cursorOf.apply(sortOrder, content.getLast()).encode() : null;
+
+        return CursorPage.<T>builder()
+                .content(content)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .totalEstimate(totalEstimate)
+                .build();
     }
 
     @Override
+    public SearchFacetsDto searchFacets(String query, ItemStatus status, String publisher, List<String> genres) {
+        Specification<Book> spec = buildSearchSpec(query, publisher, genres);
+        boolean filtered = (query != null && !query.isBlank())
+                || (publisher != null && !publisher.isBlank())
+                || (genres != null && !genres.isEmpty());
+
+        if (availabilityIndex.isReady()) {
+            // Without filters every book matches, which the index already knows without a query
+            RoaringBitmap matchingIds = filtered ? bookSummaryRepository.findIdBitmap(spec) : null;
+            return availabilityIndex.countFacets(ItemType.BOOK, matchingIds, MAX_FACET_VALUES);
+        }
+        return toFacets(bookSummaryRepository.countFacets(spec));
+    }
+
+    private static SearchFacetsDto toFacets(List<BookFacetRow> rows) {
+        Map<String, Long> genres = new HashMap<>();
+        Map<String, Long> publishers = new HashMap<>();
+        long total = 0;
+        long available = 0;
+        for (BookFacetRow row : rows) {
+            total += row.books();
+            if (row.available()) {
+                available += row.books();
+            }
+            if (row.genre() != null) {
+                genres.merge(row.genre(), row.books(), Long::sum);
+            }
+            if (row.publisher() != null) {
+                publishers.merge(row.publisher(), row.books(), Long::sum);
+            }
+        }
+
+        Map<String, Long> availability = new LinkedHashMap<>();
+        availability.put("AVAILABLE", available);
+        availability.put("UNAVAILABLE", total - available);
+
+        return SearchFacetsDto.builder()
+                .total(total)
+                .genres(topCounts(genres))
+                .publishers(topCounts(publishers))
+                .itemTypes(total > 0 ? Map.of(ItemType.BOOK.name(), total) : Map.of())
+                .availability(availability)
+                .build();
+    }
+
+    private static Map<String, Long> topCounts(Map<String, Long> counts) {
+        Map<String, Long> top = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(MAX_FACET_VALUES)
+                .forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+        return top;
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.BOOK_FACETS, key = "'topGenres'")
     public List<String> getTopGenres() {
         return bookRepository.findTop4Genres();
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.BOOK_FACETS, key = "'otherGenres'")
     public List<String> getOtherGenres() {
         return bookRepository.findOtherGenres();
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.BOOK_FACETS, key = "'publishers'")
     public List<String> getAllPublishers() {
         return bookRepository.findAllPublishers();
     }
@@ -167,6 +427,11 @@ public class BookService implements IBookService {
         return bookRepository.findAllByOrderByCreatedAtDesc(pageable);
     }
 
+    @Override
+    public List<BookSummaryDto> getRecentBookSummaries(int limit) {
+        return bookSummaryRepository.findAll(Specification.where(null), Sort.by("createdAt").descending(), 0, limit);
+    }
+
     @Override
     public List<Book> getPopularBooks(int limit) {
         // Since we are in microservices, we cannot access rental history directly here 
@@ -175,45 +440,76 @@ public class BookService implements IBookService {
         return getRecentBooks(limit);
     }
 
+    @Override
+    public List<BookSummaryDto> getPopularBookSummaries(int limit) {
+        // Same fallback as getPopularBooks
+        return getRecentBookSummaries(limit);
+    }
+
     @Override
     public BookAvailabilityDto getBookAvailability(Long id) {
         Book book = findById(id);
-        
-        // Get inventory info for this book
-        List<BranchInventory> inventories = inventoryRepository.findByItemId(id);
-        
-        // Find any rented copy to show days until due
-        Integer daysUntilDue = null;
-        BranchInventory rentedCopy = inventories.stream()
-                .filter(inv -> inv.getStatus() == CopyStatus.RENTED && inv.getDueDate() != null)
-                .findFirst()
-                .orElse(null);
-        
-        if (rentedCopy != null && rentedCopy.getDueDate() != null) {
-            long days = ChronoUnit.DAYS.between(
-                    java.time.LocalDate.now(), 
-                    rentedCopy.getDueDate().toLocalDate()
-            );
-            daysUntilDue = (int) Math.max(0, days);
-        }
-        
-        // Get available branches
-        Set<Long> availableBranches = inventories.stream()
-                .filter(inv -> inv.getStatus() == CopyStatus.AVAILABLE)
-                .map(BranchInventory::getBranchId)
-                .collect(Collectors.toSet());
-        
-        // Compute overall status
-        String overallStatus = availableBranches.isEmpty() ? "UNAVAILABLE" : "AVAILABLE";
+        ItemAvailabilityDto availability = getAvailability(List.of(id)).getFirst();
 
         return BookAvailabilityDto.builder()
                 .id(book.getId())
                 .title(book.getTitle())
                 .author(book.getAuthor())
-                .status(overallStatus)
+                .status(availability.getStatus())
                 .imageUrl(book.getImageUrl())
-                .daysUntilDue(daysUntilDue)
+                .daysUntilDue(availability.getDaysUntilDue())
+                .availableAtBranches(availability.getAvailableAtBranches())
+                .build();
+    }
+
+    @Override
+    public List<ItemAvailabilityDto> getAvailability(List<Long> ids) {
+        // List.contains(null) throws on immutable lists
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Item ids must not be null");
+        }
+        List<Long> uniqueIds = List.copyOf(new LinkedHashSet<>(ids));
+        if (uniqueIds.size() > MAX_AVAILABILITY_BATCH) {
+            throw new IllegalArgumentException(
+                    "Too many item ids: " + uniqueIds.size() + " (max " + MAX_AVAILABILITY_BATCH + ")");
+        }
+        if (uniqueIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, ItemAvailabilityRow> rowsById = inventoryRepository.summarizeAvailability(uniqueIds).stream()
+                .collect(Collectors.toMap(ItemAvailabilityRow::getItemId, Function.identity()));
+        LocalDate today = LocalDate.now();
+
+        // Items without inventory rows are reported as unavailable
+        return uniqueIds.stream()
+                .map(id -> toAvailability(id, rowsById.get(id), today))
+                .toList();
+    }
+
+    private static ItemAvailabilityDto toAvailability(Long id, ItemAvailabilityRow row, LocalDate today) {
+        Set<Long> availableBranches = new TreeSet<>();
+        LocalDate expectedReturnDate = null;
+        Integer daysUntilDue = null;
+
+        if (row != null) {
+            if (row.getAvailableBranchIds() != null) {
+                for (String branchId : row.getAvailableBranchIds().split(",")) {
+                    availableBranches.add(Long.valueOf(branchId));
+                }
+            }
+            if (row.getEarliestDueDate() != null) {
+                expectedReturnDate = row.getEarliestDueDate().toLocalDate();
+                daysUntilDue = (int) Math.max(0, ChronoUnit.DAYS.between(today, expectedReturnDate));
+            }
+        }
+
+        return ItemAvailabilityDto.builder()
+                .id(id)
+                .status(availableBranches.isEmpty() ? "UNAVAILABLE" : "AVAILABLE")
                 .availableAtBranches(availableBranches)
+                .expectedReturnDate(expectedReturnDate)
+                .daysUntilDue(daysUntilDue)
                 .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,50 @@
+package org.pollub.catalog.service;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Sort orders supported by book browsing and search.
+ * Every order ends with the book id, so it is total and can be used for keyset paging.
+ */
+enum BookSortOrder {
+    ID("id", Sort.Direction.ASC),
+    TITLE_ASC("title", Sort.Direction.ASC),
+    TITLE_DESC("title", Sort.Direction.DESC),
+    AUTHOR_ASC("author", Sort.Direction.ASC),
+    AUTHOR_DESC("author", Sort.Direction.DESC);
+
+    private final String property;
+    private final Sort.Direction direction;
+
+    BookSortOrder(String property, Sort.Direction direction) {
+        this.property = property;
+        this.direction = direction;
+    }
+
+    /**
+     * Resolve the sort request parameter, falling back to ID for unknown or missing values.
+     */
+    static BookSortOrder from(String sort) {
+        for (BookSortOrder order : values()) {
+            if (order.name().equals(sort)) {
+                return order;
+            }
+        }
+        return ID;
+    }
+
+    String property() {
+        return property;
+    }
+
+    boolean isDescending() {
+        return direction.isDescending();
+    }
+
+    Sort toSort() {
+        if (this == ID) {
+            return Sort.by(direction, "id");
+        }
+        return Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+}
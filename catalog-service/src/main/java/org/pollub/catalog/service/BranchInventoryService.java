@@ -1,21 +1,39 @@
 package org.pollub.catalog.service;
 
 import jakarta.transaction.Transactional;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.pollub.catalog.client.ReservationServiceClient;
+import org.pollub.catalog.config.HttpCacheConfig;
 import org.pollub.catalog.model.BranchInventory;
+import org.pollub.catalog.model.ChangeType;
 import org.pollub.catalog.model.CopyStatus;
 import org.pollub.catalog.model.dto.BranchInventoryDto;
+import org.pollub.catalog.model.dto.InventoryChangeEvent;
 import org.pollub.catalog.model.dto.ReservationCatalogRequestDto;
 import org.pollub.catalog.repository.IBranchInventoryRepository;
+import org.pollub.catalog.repository.IBranchStockRepository;
+import org.pollub.catalog.repository.ICatalogChangeRepository;
 import org.pollub.common.dto.RentalHistoryDto;
 import org.pollub.common.dto.ReservationResponse;
+import org.pollub.common.exception.InventoryConflictException;
 import org.pollub.common.exception.ResourceNotFoundException;
+import org.pollub.common.web.ResourceVersions;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * Service for managing per-branch inventory of library items.
@@ -26,34 +44,46 @@ import java.util.List;
 @Slf4j
 public class BranchInventoryService implements IBranchInventoryService {
 
+    private static final int IN_LIST_CHUNK_SIZE = 1000;
+    private static final int MAX_TRANSITION_ATTEMPTS = 3;
+    private static final String CONFLICTS_METRIC = "catalog.inventory.transition.conflicts";
+    private static final String RETRIES_METRIC = "catalog.inventory.transition.retries";
+
     private final IBranchInventoryRepository inventoryRepository;
+    private final IBranchStockRepository stockRepository;
+    private final ICatalogChangeRepository changeRepository;
     private final ReservationServiceClient reservationServiceClient;
+    private final MeterRegistry meterRegistry;
+    private final ResourceVersions resourceVersions;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IAvailabilityIndexService availabilityIndex;
+    private final ICatalogSnapshotService catalogSnapshot;
 
     @Override
     public ReservationResponse rentCopy(Long itemId, RentalHistoryDto rentalHistoryDto) {
         Long branchId = rentalHistoryDto.getBranchId();
         Long userId = rentalHistoryDto.getUserId();
 
-        BranchInventory inventory = getBranchInventoryOrThrow(itemId, branchId);
-
-        validateReservationOwnership(inventory, userId);
-        validateAvailabilityForRent(inventory);
-
-        // Check if the book was reserved before we clear the reservation info
-        boolean wasReserved = inventory.getStatus() == CopyStatus.RESERVED;
-
-        updateInventoryRecordWithRentData(inventory, CopyStatus.RENTED, userId, rentalHistoryDto.getRentedAt(), rentalHistoryDto.getDueDate());
-
-        clearReservationInfo(inventory);
-
-        try{
-            inventoryRepository.save(inventory);
-            
-            // If the book was reserved, mark the reservation as fulfilled in reservation-service
-            if (wasReserved) {
-                reservationServiceClient.fulfillReservation(itemId, branchId, userId);
+        try {
+            // Prefer the copy this user reserved, otherwise claim an available copy
+            BranchInventory before = transition("rent", itemId, branchId,
+                    () -> findCopy(itemId, branchId, CopyStatus.RESERVED, null, userId)
+                            .or(() -> claimAvailableCopy(itemId, branchId))
+                            .orElseGet(() -> getAnyCopyOrThrow(itemId, branchId)),
+                    inventory -> {
+                        validateReservationOwnership(inventory, userId);
+                        validateAvailabilityForRent(inventory);
+                        return inventoryRepository.markRented(inventory.getId(), inventory.getStatus(), userId,
+                                rentalHistoryDto.getRentedAt(), rentalHistoryDto.getDueDate());
+                    });
+            onStatusChanged("rent", before, CopyStatus.RENTED);
+
+            // If the book was reserved, mark the reservation as fulfilled in reservation-service,
+            // once committed so the copy and stock rows are not locked across the remote call
+            if (before.getStatus() == CopyStatus.RESERVED) {
+                afterCommit(() -> reservationServiceClient.fulfillReservation(itemId, branchId, userId));
             }
-            
+
             return ReservationResponse.builder()
                     .itemId(itemId)
                     .branchId(branchId)
@@ -68,25 +98,156 @@ public class BranchInventoryService implements IBranchInventoryService {
         }
     }
 
-    private static void clearReservationInfo(BranchInventory inventory) {
-        inventory.setReservedByUserId(null);
-        inventory.setReservedAt(null);
-        inventory.setReservationExpiresAt(null);
+    /**
+     * Apply a state transition as a conditional update against the status that was just read.
+     * If another request changed the copy in between, the update matches no row; a copy is
+     * then selected and validated again, up to MAX_TRANSITION_ATTEMPTS times. Only available
+     * copies are locked when selected (claimAvailableCopy), as every renter and reserver wants one.
+     *
+     * @return the copy as it was right before the successful transition
+     */
+    private BranchInventory transition(String action, Long itemId, Long branchId,
+                                       Supplier<BranchInventory> selectCopy, InventoryTransition transition) {
+        for (int attempt = 1; ; attempt++) {
+            BranchInventory current = selectCopy.get();
+            if (transition.apply(current) > 0) {
+                changeRepository.record(ChangeType.COPY.name(), current.getId(), false);
+                resourceVersions.bump(HttpCacheConfig.INVENTORY);
+                return current;
+            }
+
+            meterRegistry.counter(CONFLICTS_METRIC, "action", action).increment();
+            if (attempt >= MAX_TRANSITION_ATTEMPTS) {
+                throw new InventoryConflictException("Copy of item " + itemId + " at branch " + branchId
+                        + " is being modified concurrently, please retry.");
+            }
+            meterRegistry.counter(RETRIES_METRIC, "action", action).increment();
+            log.debug("Conflict on {} of item {} at branch {}, retrying (attempt {})", action, itemId, branchId, attempt + 1);
+        }
+    }
+
+    /**
+     * Validates a copy for a transition and performs the conditional update, returning the updated row count.
+     */
+    @FunctionalInterface
+    private interface InventoryTransition {
+        int apply(BranchInventory current);
+    }
+
+    /**
+     * Keep the branch copy counts in step with a copy that moved from its previous status to newStatus,
+     * and announce the change to availability feed subscribers (delivered after commit).
+     */
+    private void onStatusChanged(String action, BranchInventory before, CopyStatus newStatus) {
+        int delta = (newStatus == CopyStatus.AVAILABLE ? 1 : 0)
+                - (before.getStatus() == CopyStatus.AVAILABLE ? 1 : 0);
+        if (delta != 0) {
+            stockRepository.adjustAvailable(before.getItemId(), before.getBranchId(), delta);
+        }
+
+        eventPublisher.publishEvent(InventoryChangeEvent.builder()
+                .itemId(before.getItemId())
+                .branchId(before.getBranchId())
+                .copyId(before.getId())
+                .action(action)
+                .previousStatus(before.getStatus().name())
+                .status(newStatus.name())
+                .occurredAt(LocalDateTime.now())
+                .build());
     }
 
-    private static void updateInventoryRecordWithRentData(BranchInventory inventory, CopyStatus rented, Long userId, LocalDateTime rentedAt, LocalDateTime dueDate) {
-        inventory.setStatus(rented);
-        inventory.setRentedByUserId(userId);
-        inventory.setRentedAt(rentedAt);
-        inventory.setDueDate(dueDate);
-        inventory.setRentExtended(false);
+    /**
+     * Find a copy at a branch with the given status, optionally held by a specific renter or reserver.
+     */
+    private Optional<BranchInventory> findCopy(Long itemId, Long branchId, CopyStatus status,
+                                               Long rentedByUserId, Long reservedByUserId) {
+        if (rentedByUserId != null) {
+            return inventoryRepository.findFirstByItemIdAndBranchIdAndStatusAndRentedByUserIdOrderByIdAsc(
+                    itemId, branchId, status, rentedByUserId);
+        }
+        if (reservedByUserId != null) {
+            return inventoryRepository.findFirstByItemIdAndBranchIdAndStatusAndReservedByUserIdOrderByIdAsc(
+                    itemId, branchId, status, reservedByUserId);
+        }
+        return inventoryRepository.findFirstByItemIdAndBranchIdAndStatusOrderByIdAsc(itemId, branchId, status);
     }
 
-    private BranchInventory getBranchInventoryOrThrow(Long itemId, Long branchId) {
-        BranchInventory inventory = inventoryRepository.findByItemIdAndBranchId(itemId, branchId)
+    /**
+     * Lock an available copy no other transaction is claiming.
+     */
+    private Optional<BranchInventory> claimAvailableCopy(Long itemId, Long branchId) {
+        return inventoryRepository.claimFirstByStatus(itemId, branchId, CopyStatus.AVAILABLE.name());
+    }
+
+    /**
+     * Run a remote call once the current transaction has committed. It can no longer undo the
+     * transition, so a failure is only logged.
+     */
+    private static void afterCommit(Runnable call) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            call.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    call.run();
+                } catch (Exception e) {
+                    log.error("Remote call after inventory transition failed: {}", e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Fall back to any copy at the branch, so the transition's validation reports why it cannot proceed.
+     */
+    private BranchInventory getAnyCopyOrThrow(Long itemId, Long branchId) {
+        return inventoryRepository.findFirstByItemIdAndBranchIdOrderByIdAsc(itemId, branchId)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "No copy of item " + itemId + " found at branch " + branchId));
-        return inventory;
+    }
+
+    /**
+     * Find the copy a user holds with the given status. A user holding no such copy is a conflict,
+     * never a reason to move a copy somebody else holds.
+     */
+    private BranchInventory getHeldCopyOrThrow(Long itemId, Long branchId, CopyStatus status, Long userId) {
+        Optional<BranchInventory> held = status == CopyStatus.RENTED
+                ? findCopy(itemId, branchId, status, userId, null)
+                : findCopy(itemId, branchId, status, null, userId);
+        return held.orElseThrow(() -> notHeld(itemId, branchId, userId));
+    }
+
+    /**
+     * Get a specific copy, which must be a copy of the item at the branch and, if a user is given, held by them.
+     */
+    private BranchInventory getCopyAtBranchOrThrow(Long copyId, Long itemId, Long branchId, Long userId) {
+        BranchInventory copy = getCopyByIdOrThrow(copyId);
+        if (!copy.getItemId().equals(itemId) || !copy.getBranchId().equals(branchId)) {
+            throw new ResourceNotFoundException(
+                    "Copy " + copyId + " of item " + itemId + " not found at branch " + branchId);
+        }
+        if (userId != null && !isHeldBy(copy, userId)) {
+            throw notHeld(itemId, branchId, userId);
+        }
+        return copy;
+    }
+
+    private static boolean isHeldBy(BranchInventory copy, Long userId) {
+        return (copy.getStatus() == CopyStatus.RESERVED && userId.equals(copy.getReservedByUserId()))
+                || (copy.getStatus() == CopyStatus.RENTED && userId.equals(copy.getRentedByUserId()));
+    }
+
+    private static InventoryConflictException notHeld(Long itemId, Long branchId, Long userId) {
+        return new InventoryConflictException(
+                "User " + userId + " holds no matching copy of item " + itemId + " at branch " + branchId);
+    }
+
+    private BranchInventory getCopyByIdOrThrow(Long inventoryId) {
+        return inventoryRepository.findById(inventoryId)
+                .orElseThrow(() -> new ResourceNotFoundException("BranchInventory", inventoryId));
     }
 
     private void validateReservationOwnership(BranchInventory inventory, Long userId) {
@@ -111,24 +272,23 @@ public class BranchInventoryService implements IBranchInventoryService {
         }
     }
 
-
-
-
-
     @Override
-    public void returnCopy(Long itemId, Long branchId) {
+    public void returnCopy(Long itemId, Long branchId, Long userId) {
         log.info("Returning item {} to branch {}", itemId, branchId);
 
-        BranchInventory inventory = getBranchInventoryOrThrow(itemId, branchId);
-
-        if (inventory.getStatus() != CopyStatus.RENTED) {
-            throw new IllegalStateException("Copy is not rented. Current status: " + inventory.getStatus());
-        }
-
-        updateInventoryRecordWithRentData(inventory, CopyStatus.AVAILABLE, null, null, null);
-
         try {
-            inventoryRepository.save(inventory);
+            BranchInventory before = transition("return", itemId, branchId,
+                    () -> userId != null
+                            ? getHeldCopyOrThrow(itemId, branchId, CopyStatus.RENTED, userId)
+                            : findCopy(itemId, branchId, CopyStatus.RENTED, null, null)
+                                    .orElseGet(() -> getAnyCopyOrThrow(itemId, branchId)),
+                    inventory -> {
+                        if (inventory.getStatus() != CopyStatus.RENTED) {
+                            throw new IllegalStateException("Copy is not rented. Current status: " + inventory.getStatus());
+                        }
+                        return inventoryRepository.markAvailable(inventory.getId(), CopyStatus.RENTED);
+                    });
+            onStatusChanged("return", before, CopyStatus.AVAILABLE);
         } catch (Exception e) {
             log.error("Error returning copy of item {} at branch {}: {}", itemId, branchId, e.getMessage());
             throw e;
@@ -140,25 +300,22 @@ public class BranchInventoryService implements IBranchInventoryService {
     public BranchInventoryDto reserveCopy(Long itemId, ReservationCatalogRequestDto reservationCatalogRequestDto) {
         Long branchId = reservationCatalogRequestDto.getBranchId();
 
-        BranchInventory inventory = getBranchInventoryOrThrow(itemId, branchId);
-
-        if (inventory.getStatus() != CopyStatus.AVAILABLE) {
-            throw new IllegalStateException(
-                    "Copy is not available for reservation. Current status: " + inventory.getStatus());
-        }
-
-        inventory.setStatus(CopyStatus.RESERVED);
-        inventory.setReservedByUserId(
-                reservationCatalogRequestDto.getUserId()
-        );
-        inventory.setReservedAt(LocalDateTime.now());
-        inventory.setReservationExpiresAt(
-                reservationCatalogRequestDto.getExpiresAt()
-        );
-
         try {
-            BranchInventory savedInventory = inventoryRepository.save(inventory);
-            return toDto(savedInventory);
+            BranchInventory before = transition("reserve", itemId, branchId,
+                    () -> claimAvailableCopy(itemId, branchId)
+                            .orElseGet(() -> getAnyCopyOrThrow(itemId, branchId)),
+                    inventory -> {
+                        if (inventory.getStatus() != CopyStatus.AVAILABLE) {
+                            throw new IllegalStateException(
+                                    "Copy is not available for reservation. Current status: " + inventory.getStatus());
+                        }
+                        return inventoryRepository.markReserved(inventory.getId(), CopyStatus.AVAILABLE,
+                                reservationCatalogRequestDto.getUserId(),
+                                LocalDateTime.now(),
+                                reservationCatalogRequestDto.getExpiresAt());
+                    });
+            onStatusChanged("reserve", before, CopyStatus.RESERVED);
+            return toDto(getCopyByIdOrThrow(before.getId()));
         } catch (Exception e) {
             log.error("Error reserving copy of item {} at branch {}: {}", itemId, branchId, e.getMessage());
             throw e;
@@ -166,41 +323,47 @@ public class BranchInventoryService implements IBranchInventoryService {
     }
 
     @Override
-    public BranchInventory cancelReservation(Long itemId, Long branchId) {
+    public BranchInventory cancelReservation(Long itemId, Long branchId, Long userId) {
         log.info("Cancelling reservation for item {} at branch {}", itemId, branchId);
 
-        BranchInventory inventory = getBranchInventoryOrThrow(itemId, branchId);
-
-        if (inventory.getStatus() != CopyStatus.RESERVED) {
-            throw new IllegalStateException("Copy is not reserved. Current status: " + inventory.getStatus());
-        }
-
-        inventory.setStatus(CopyStatus.AVAILABLE);
-        clearReservationInfo(inventory);
-
-        return inventoryRepository.save(inventory);
+        BranchInventory before = transition("cancel", itemId, branchId,
+                () -> userId != null
+                        ? getHeldCopyOrThrow(itemId, branchId, CopyStatus.RESERVED, userId)
+                        : findCopy(itemId, branchId, CopyStatus.RESERVED, null, null)
+                                .orElseGet(() -> getAnyCopyOrThrow(itemId, branchId)),
+                inventory -> {
+                    if (inventory.getStatus() != CopyStatus.RESERVED) {
+                        throw new IllegalStateException("Copy is not reserved. Current status: " + inventory.getStatus());
+                    }
+                    return inventoryRepository.markAvailable(inventory.getId(), CopyStatus.RESERVED);
+                });
+        onStatusChanged("cancel", before, CopyStatus.AVAILABLE);
+
+        return getCopyByIdOrThrow(before.getId());
     }
 
     @Override
     @Transactional
-    public void extendRental(Long itemId, Long branchId, int additionalDays) {
+    public void extendRental(Long itemId, Long branchId, Long userId, int additionalDays) {
         log.info("Extending rental for item {} at branch {} by {} days", itemId, branchId, additionalDays);
 
-        BranchInventory inventory = getBranchInventoryOrThrow(itemId, branchId);
-
-        throwIfNotRented(inventory);
-
-        throwIfHaveAlreadyBeenExtended(inventory);
-
-        LocalDateTime newDueDate = inventory.getDueDate() != null 
-                ? inventory.getDueDate().plusDays(additionalDays)
-                : LocalDateTime.now().plusDays(additionalDays);
-        
-        inventory.setDueDate(newDueDate);
-        inventory.setRentExtended(true);
-
         try {
-            inventoryRepository.save(inventory);
+            transition("extend", itemId, branchId,
+                    () -> userId != null
+                            ? getHeldCopyOrThrow(itemId, branchId, CopyStatus.RENTED, userId)
+                            : findCopy(itemId, branchId, CopyStatus.RENTED, null, null)
+                                    .orElseGet(() -> getAnyCopyOrThrow(itemId, branchId)),
+                    inventory -> {
+                        throwIfNotRented(inventory);
+
+                        throwIfHaveAlreadyBeenExtended(inventory);
+
+                        LocalDateTime newDueDate = inventory.getDueDate() != null
+                                ? inventory.getDueDate().plusDays(additionalDays)
+                                : LocalDateTime.now().plusDays(additionalDays);
+
+                        return inventoryRepository.extendRental(inventory.getId(), newDueDate);
+                    });
         } catch (Exception e) {
             log.error("Error extending rental for item {} at branch {}: {}", itemId, branchId, e.getMessage());
             throw e;
@@ -227,25 +390,50 @@ public class BranchInventoryService implements IBranchInventoryService {
     }
 
     @Override
-    public List<BranchInventory> getAvailableCopies(Long itemId) {
-        return inventoryRepository.findByItemId(itemId).stream()
-                .filter(inv -> inv.getStatus() == CopyStatus.AVAILABLE)
+    public List<BranchInventoryDto> getCopies(Collection<Long> copyIds) {
+        if (copyIds.isEmpty()) {
+            return List.of();
+        }
+        return inventoryRepository.findAllById(copyIds).stream()
+                .map(this::toDto)
                 .toList();
     }
 
+    @Override
+    public List<BranchInventory> getAvailableCopies(Long itemId) {
+        return inventoryRepository.findByItemIdAndStatus(itemId, CopyStatus.AVAILABLE);
+    }
+
     @Override
     public List<Long> getAvailableItemsAtBranch(Long branchId) {
-        return inventoryRepository.findItemIdsByBranchIdAndStatus(branchId, CopyStatus.AVAILABLE);
+        if (availabilityIndex.isReady()) {
+            return availabilityIndex.findItemIds(branchId, CopyStatus.AVAILABLE, null, null, 0, Integer.MAX_VALUE);
+        }
+        return stockRepository.findAvailableItemIdsAtBranch(branchId);
     }
 
     @Override
     public boolean isAvailableAtBranch(Long itemId, Long branchId) {
-        return inventoryRepository.existsByItemIdAndBranchIdAndStatus(itemId, branchId, CopyStatus.AVAILABLE);
+        return stockRepository.existsByItemIdAndBranchIdAndAvailableCountGreaterThan(itemId, branchId, 0);
     }
 
     @Override
     public List<Long> getAvailableBranchIds(Long itemId) {
-        return inventoryRepository.findAvailableBranchIds(itemId);
+        return stockRepository.findAvailableBranchIds(itemId);
+    }
+
+    @Override
+    public Set<Long> getAvailableItemIds(Collection<Long> itemIds) {
+        if (catalogSnapshot.isReady()) {
+            return catalogSnapshot.getAvailableItemIds(itemIds);
+        }
+        List<Long> ids = List.copyOf(new LinkedHashSet<>(itemIds));
+        Set<Long> availableIds = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, ids.size()));
+            availableIds.addAll(stockRepository.findAvailableItemIdsIn(chunk));
+        }
+        return availableIds;
     }
 
     @Override
@@ -255,39 +443,55 @@ public class BranchInventoryService implements IBranchInventoryService {
 
     @Override
     @Transactional
-    public BranchInventory addInventory(Long itemId, Long branchId) {
-        log.info("Adding inventory for item {} at branch {}", itemId, branchId);
-        
-        if (inventoryRepository.existsByItemIdAndBranchId(itemId, branchId)) {
-            throw new IllegalStateException("Inventory already exists for item " + itemId + " at branch " + branchId);
+    public List<BranchInventory> addInventory(Long itemId, Long branchId, int copies) {
+        log.info("Adding {} copies of item {} at branch {}", copies, itemId, branchId);
+
+        if (copies < 1) {
+            throw new IllegalArgumentException("Number of copies must be positive: " + copies);
         }
 
-        BranchInventory inventory = BranchInventory.builder()
-                .itemId(itemId)
-                .branchId(branchId)
-                .status(CopyStatus.AVAILABLE)
-                .build();
+        List<BranchInventory> inventories = new ArrayList<>();
+        for (int i = 0; i < copies; i++) {
+            inventories.add(BranchInventory.builder()
+                    .itemId(itemId)
+                    .branchId(branchId)
+                    .status(CopyStatus.AVAILABLE)
+                    .build());
+        }
 
-        return inventoryRepository.save(inventory);
+        List<BranchInventory> saved = inventoryRepository.saveAll(inventories);
+        stockRepository.addCopies(itemId, branchId, copies);
+        changeRepository.recordCopies(saved.stream().map(BranchInventory::getId).toList());
+        resourceVersions.bump(HttpCacheConfig.INVENTORY);
+        return saved;
     }
 
     @Override
     @Transactional
-    public void updateStatus(Long itemId, Long branchId, String statusStr) {
+    public void updateStatus(Long itemId, Long branchId, Long copyId, Long userId, String statusStr) {
         log.info("Updating status for item {} at branch {} to {}", itemId, branchId, statusStr);
 
-        BranchInventory inventory = getBranchInventoryOrThrow(itemId, branchId);
-
         CopyStatus status;
         try {
             status = CopyStatus.valueOf(statusStr);
         } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException("Invalid status: " + statusStr);
         }
+        if (copyId == null && userId == null) {
+            throw new IllegalArgumentException("copyId is required when no userId is given");
+        }
 
-        inventory.setStatus(status);
-        inventoryRepository.save(inventory);
-
+        // Only ever the named copy or the copy the given user reserved; rentals change through
+        // return and extend, so a cancelled or expired reservation cannot release the user's rental
+        BranchInventory before = transition("update-status", itemId, branchId,
+                () -> copyId != null
+                        ? getCopyAtBranchOrThrow(copyId, itemId, branchId, userId)
+                        : getHeldCopyOrThrow(itemId, branchId, CopyStatus.RESERVED, userId),
+                // A copy made available again no longer belongs to its renter or reserver
+                inventory -> status == CopyStatus.AVAILABLE
+                        ? inventoryRepository.markAvailable(inventory.getId(), inventory.getStatus())
+                        : inventoryRepository.updateStatus(inventory.getId(), inventory.getStatus(), status));
+        onStatusChanged("update-status", before, status);
     }
 
     private BranchInventoryDto toDto(BranchInventory inventory) {
@@ -0,0 +1,151 @@
+package org.pollub.catalog.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.pollub.catalog.model.CatalogChange;
+import org.pollub.catalog.model.ChangeType;
+import org.pollub.catalog.model.dto.BranchInventoryDto;
+import org.pollub.catalog.model.dto.CatalogChangeDto;
+import org.pollub.catalog.model.dto.CatalogChangesDto;
+import org.pollub.catalog.model.dto.CatalogItemChangeEvent;
+import org.pollub.catalog.model.dto.InventoryChangeEvent;
+import org.pollub.catalog.repository.ICatalogChangeRepository;
+import org.pollub.common.dto.ItemDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Serves the change log. Entries only store keys; their current state is loaded per page
+ * with one IN-list query per entity type.
+ * Pending entries are versioned by a background job every sequence interval, so reads never write
+ * or wait for the sequencer's advisory lock; an entry shows up in the feed within that interval.
+ * Writes committed through this instance are versioned right away, so the in-memory read models
+ * following the log pick them up at their next catch-up.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogChangeService implements ICatalogChangeService {
+
+    private final ICatalogChangeRepository changeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ICatalogService catalogService;
+    private final IBranchInventoryService branchInventoryService;
+    private final ItemDtoAssembler itemDtoAssembler;
+
+    private final ScheduledExecutorService sequencer = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicBoolean sequencingQueued = new AtomicBoolean();
+    private volatile boolean started;
+
+    @Value("${catalog-changes.sequence-interval:1s}")
+    private Duration sequenceInterval;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        started = true;
+        sequencer.scheduleWithFixedDelay(this::sequenceSafely,
+                0, sequenceInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChange(InventoryChangeEvent event) {
+        queueSequencing();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChange(CatalogItemChangeEvent event) {
+        queueSequencing();
+    }
+
+    /**
+     * Log an item write in the writing transaction, so the entry commits or rolls back with it.
+     */
+    @EventListener
+    public void recordItemChange(CatalogItemChangeEvent event) {
+        changeRepository.record(ChangeType.ITEM.name(), event.getItemId(), event.isDeleted());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sequencer.shutdownNow();
+    }
+
+    @Override
+    public CatalogChangesDto getChanges(long since, int limit) {
+        List<CatalogChange> entries = changeRepository.findByVersionGreaterThanOrderByVersionAsc(since, Limit.of(limit + 1));
+        boolean hasMore = entries.size() > limit;
+        if (hasMore) {
+            entries = entries.subList(0, limit);
+        }
+
+        Map<Long, ItemDto> items = itemDtoAssembler.toDtos(catalogService.findAllById(idsOf(entries, ChangeType.ITEM)))
+                .stream()
+                .collect(Collectors.toMap(ItemDto::getId, Function.identity()));
+        Map<Long, BranchInventoryDto> copies = branchInventoryService.getCopies(idsOf(entries, ChangeType.COPY))
+                .stream()
+                .collect(Collectors.toMap(BranchInventoryDto::getId, Function.identity()));
+
+        List<CatalogChangeDto> changes = entries.stream()
+                .map(entry -> {
+                    ItemDto item = entry.getEntityType() == ChangeType.ITEM ? items.get(entry.getEntityId()) : null;
+                    BranchInventoryDto copy = entry.getEntityType() == ChangeType.COPY ? copies.get(entry.getEntityId()) : null;
+                    return CatalogChangeDto.builder()
+                            .type(entry.getEntityType().name())
+                            .id(entry.getEntityId())
+                            .version(entry.getVersion())
+                            // No state left means the entity was deleted after this entry was written
+                            .deleted(Boolean.TRUE.equals(entry.getDeleted()) || (item == null && copy == null))
+                            .item(item)
+                            .copy(copy)
+                            .build();
+                })
+                .toList();
+
+        return CatalogChangesDto.builder()
+                .changes(changes)
+                .nextSince(entries.isEmpty() ? since : entries.getLast().getVersion())
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Run the sequencer once on its thread unless a run is already waiting.
+     */
+    private void queueSequencing() {
+        if (started && sequencingQueued.compareAndSet(false, true)) {
+            sequencer.execute(this::sequenceSafely);
+        }
+    }
+
+    private void sequenceSafely() {
+        sequencingQueued.set(false);
+        try {
+            transactionTemplate.executeWithoutResult(status -> changeRepository.sequencePending());
+        } catch (Exception e) {
+            log.warn("Failed to sequence catalog changes", e);
+        }
+    }
+
+    private static List<Long> idsOf(List<CatalogChange> entries, ChangeType type) {
+        return entries.stream()
+                .filter(entry -> entry.getEntityType() == type && !Boolean.TRUE.equals(entry.getDeleted()))
+                .map(CatalogChange::getEntityId)
+                .toList();
+    }
+}
@@ -0,0 +1,342 @@
+package org.pollub.catalog.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.pollub.catalog.config.CacheConfig;
+import org.pollub.catalog.config.HttpCacheConfig;
+import org.pollub.catalog.model.dto.CatalogImportRecord;
+import org.pollub.catalog.model.dto.ImportProgressDto;
+import org.pollub.catalog.repository.CatalogImportRepository;
+import org.pollub.catalog.repository.ICatalogChangeRepository;
+import org.pollub.catalog.repository.ICatalogItemViewRepository;
+import org.pollub.catalog.repository.ICatalogSearchRepository;
+import org.pollub.catalog.repository.SearchFoldingRepository;
+import org.pollub.catalog.utils.IsbnNormalizer;
+import org.pollub.common.cache.InvalidationBus;
+import org.pollub.common.exception.ResourceNotFoundException;
+import org.pollub.common.web.ResourceVersions;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Imports JSON-lines catalog files as a pipeline: lines are read in batches, parsed and validated
+ * on a worker pool, then written by a single writer, one transaction and a handful of batched statements
+ * per batch (search documents, read model rows and change log entries included). Books whose canonical
+ * ISBN-13 is already in the catalog are skipped by the database (INSERT ... ON CONFLICT DO NOTHING),
+ * so no set of known ISBNs is held in memory.
+ * Progress of finished jobs is kept for FINISHED_JOB_RETENTION.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogImportService implements ICatalogImportService {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int PARSER_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
+    // Parsed batches waiting for the writer; bounds memory when parsing outpaces the database
+    private static final int MAX_BATCHES_IN_FLIGHT = PARSER_THREADS * 2;
+    private static final String DEFAULT_PAPER_TYPE = "A4";
+    private static final int DEFAULT_SHELF_NUMBER = 1;
+    private static final Duration FINISHED_JOB_RETENTION = Duration.ofHours(1);
+
+    private final CatalogImportRepository importRepository;
+    private final ICatalogSearchRepository searchRepository;
+    private final SearchFoldingRepository foldingRepository;
+    private final ICatalogItemViewRepository itemViewRepository;
+    private final ICatalogChangeRepository changeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+    private final ResourceVersions resourceVersions;
+    private final IAvailabilityIndexService availabilityIndex;
+    private final ISuggestService suggestService;
+    private final ICatalogSnapshotService catalogSnapshot;
+    private final InvalidationBus invalidationBus;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    // One import at a time: the index rebuilds after each import would otherwise overlap
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor();
+
+    @Override
+    public ImportProgressDto startImport(InputStream upload) throws IOException {
+        removeExpiredJobs();
+        Path file = Files.createTempFile("catalog-import-", ".jsonl");
+        Files.copy(upload, file, StandardCopyOption.REPLACE_EXISTING);
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString());
+        jobs.put(job.id, job);
+        jobExecutor.submit(() -> {
+            try {
+                runImport(file, job);
+            } catch (Exception e) {
+                log.error("Catalog import {} failed", job.id, e);
+                job.fail(e);
+            } finally {
+                deleteQuietly(file);
+            }
+        });
+        return job.toDto();
+    }
+
+    @Override
+    public ImportProgressDto importFile(Path file) throws IOException {
+        removeExpiredJobs();
+        ImportJob job = new ImportJob(UUID.randomUUID().toString());
+        jobs.put(job.id, job);
+        try {
+            runImport(file, job);
+        } catch (IOException | RuntimeException e) {
+            job.fail(e);
+            throw e;
+        }
+        return job.toDto();
+    }
+
+    @Override
+    public ImportProgressDto getProgress(String jobId) {
+        removeExpiredJobs();
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job " + jobId + " not found.");
+        }
+        return job.toDto();
+    }
+
+    private void removeExpiredJobs() {
+        long cutoff = System.currentTimeMillis() - FINISHED_JOB_RETENTION.toMillis();
+        jobs.values().removeIf(job -> job.finishedAt > 0 && job.finishedAt < cutoff);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+
+    private void runImport(Path file, ImportJob job) throws IOException {
+        log.info("Catalog import {} started", job.id);
+
+        ExecutorService parsers = Executors.newFixedThreadPool(PARSER_THREADS);
+        Deque<Future<List<CatalogImportRecord>>> inFlight = new ArrayDeque<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<String> lines;
+            while (!(lines = readBatch(reader, job)).isEmpty()) {
+                List<String> batch = lines;
+                inFlight.add(parsers.submit(() -> parseBatch(batch, job)));
+                if (inFlight.size() >= MAX_BATCHES_IN_FLIGHT) {
+                    writeBatch(await(inFlight.poll()), job);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                writeBatch(await(inFlight.poll()), job);
+            }
+        } finally {
+            parsers.shutdownNow();
+            evictFacets();
+            // One rebuild is cheaper than replaying the change of every imported item and copy
+            availabilityIndex.rebuild();
+            suggestService.rebuild();
+            catalogSnapshot.rebuild();
+        }
+
+        job.complete();
+        ImportProgressDto result = job.toDto();
+        log.info("Catalog import {} finished: {} imported, {} duplicates, {} rejected, {} copies in {} ms ({} titles/s)",
+                job.id, result.getImported(), result.getDuplicates(), result.getRejected(), result.getCopies(),
+                result.getElapsedMillis(), String.format("%.1f", result.getTitlesPerSecond()));
+    }
+
+    private List<String> readBatch(BufferedReader reader, ImportJob job) throws IOException {
+        List<String> lines = new ArrayList<>(BATCH_SIZE);
+        String line;
+        while (lines.size() < BATCH_SIZE && (line = reader.readLine()) != null) {
+            job.linesRead.incrementAndGet();
+            if (!line.isBlank()) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private List<CatalogImportRecord> parseBatch(List<String> lines, ImportJob job) {
+        List<CatalogImportRecord> records = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            try {
+                CatalogImportRecord record = objectMapper.readValue(line, CatalogImportRecord.class);
+                if (normalize(record)) {
+                    records.add(record);
+                } else {
+                    job.rejected.incrementAndGet();
+                }
+            } catch (JsonProcessingException e) {
+                job.rejected.incrementAndGet();
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Fill in defaults and canonicalize the ISBN.
+     *
+     * @return false if the record lacks a required field
+     */
+    private boolean normalize(CatalogImportRecord record) {
+        record.setIsbn(IsbnNormalizer.normalize(record.getIsbn()));
+        if (isBlank(record.getTitle()) || isBlank(record.getAuthor()) || record.getIsbn() == null
+                || isBlank(record.getGenre()) || isBlank(record.getPublisher())) {
+            return false;
+        }
+        if (record.getPageCount() == null) {
+            record.setPageCount(0);
+        }
+        if (isBlank(record.getPaperType())) {
+            record.setPaperType(DEFAULT_PAPER_TYPE);
+        }
+        if (record.getShelfNumber() == null) {
+            record.setShelfNumber(DEFAULT_SHELF_NUMBER);
+        }
+        if (record.getCopies() != null) {
+            record.getCopies().values().removeIf(count -> count == null || count <= 0);
+        }
+        return true;
+    }
+
+    private void writeBatch(List<CatalogImportRecord> records, ImportJob job) {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        long[] written = transactionTemplate.execute(status -> {
+            List<Long> ids = importRepository.allocateItemIds(records.size());
+            // ISBN-10 and ISBN-13 forms of the same book conflict on the canonical ISBN index
+            Set<Long> insertedIds = importRepository.insertBooks(records, ids);
+            if (insertedIds.isEmpty()) {
+                return new long[]{0, 0};
+            }
+
+            List<CatalogImportRecord> fresh = new ArrayList<>(insertedIds.size());
+            List<Long> freshIds = new ArrayList<>(insertedIds.size());
+            for (int i = 0; i < records.size(); i++) {
+                if (insertedIds.contains(ids.get(i))) {
+                    fresh.add(records.get(i));
+                    freshIds.add(ids.get(i));
+                }
+            }
+            long copies = importRepository.insertCopies(fresh, freshIds);
+            searchRepository.refreshSearchVectors(freshIds);
+            foldingRepository.refresh(freshIds);
+            itemViewRepository.refresh(freshIds);
+            changeRepository.recordItems(freshIds);
+            changeRepository.recordCopiesOfItems(freshIds);
+            resourceVersions.bump(HttpCacheConfig.CATALOG);
+            resourceVersions.bump(HttpCacheConfig.INVENTORY);
+            return new long[]{freshIds.size(), copies};
+        });
+
+        job.imported.addAndGet(written[0]);
+        job.duplicates.addAndGet(records.size() - written[0]);
+        job.copies.addAndGet(written[1]);
+        log.debug("Catalog import {}: {} lines read, {} imported", job.id, job.linesRead.get(), job.imported.get());
+    }
+
+    private List<CatalogImportRecord> await(Future<List<CatalogImportRecord>> batch) {
+        try {
+            return batch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Catalog import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to parse import batch", e.getCause());
+        }
+    }
+
+    private void evictFacets() {
+        Cache facets = cacheManager.getCache(CacheConfig.BOOK_FACETS);
+        if (facets != null) {
+            facets.clear();
+        }
+        invalidationBus.publish(CacheConfig.BOOK_FACETS);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete import file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static class ImportJob {
+        private final String id;
+        private final long startedAt = System.currentTimeMillis();
+        private final AtomicLong linesRead = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong duplicates = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong copies = new AtomicLong();
+        private volatile String state = "RUNNING";
+        private volatile String error;
+        private volatile long finishedAt;
+
+        ImportJob(String id) {
+            this.id = id;
+        }
+
+        void complete() {
+            finishedAt = System.currentTimeMillis();
+            state = "COMPLETED";
+        }
+
+        void fail(Exception e) {
+            finishedAt = System.currentTimeMillis();
+            error = e.getMessage();
+            state = "FAILED";
+        }
+
+        ImportProgressDto toDto() {
+            long elapsed = (finishedAt > 0 ? finishedAt : System.currentTimeMillis()) - startedAt;
+            return ImportProgressDto.builder()
+                    .jobId(id)
+                    .state(state)
+                    .linesRead(linesRead.get())
+                    .imported(imported.get())
+                    .duplicates(duplicates.get())
+                    .rejected(rejected.get())
+                    .copies(copies.get())
+                    .elapsedMillis(elapsed)
+                    .titlesPerSecond(elapsed > 0 ? imported.get() * 1000.0 / elapsed : 0)
+                    .error(error)
+                    .build();
+        }
+    }
+}
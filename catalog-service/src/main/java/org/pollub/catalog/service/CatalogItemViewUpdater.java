@@ -0,0 +1,30 @@
+package org.pollub.catalog.service;
+
+import lombok.RequiredArgsConstructor;
+import org.pollub.catalog.model.dto.CatalogItemChangeEvent;
+import org.pollub.catalog.repository.ICatalogItemViewRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Rebuilds the catalog_item_view row of an item in the transaction that wrote the item,
+ * so listings never see a committed item without its read model row.
+ */
+@Component
+@RequiredArgsConstructor
+class CatalogItemViewUpdater {
+
+    private final ICatalogItemViewRepository itemViewRepository;
+
+    @EventListener
+    public void onItemChange(CatalogItemChangeEvent event) {
+        List<Long> itemIds = List.of(event.getItemId());
+        if (event.isDeleted()) {
+            itemViewRepository.removeAll(itemIds);
+        } else {
+            itemViewRepository.refresh(itemIds);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.pollub.catalog.service;
+
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.pollub.catalog.model.CatalogItemView;
+import org.pollub.catalog.model.dto.CatalogItemChangeEvent;
+import org.pollub.catalog.repository.ICatalogItemViewRepository;
+import org.pollub.catalog.repository.ICatalogSearchRepository;
+import org.pollub.catalog.repository.SearchFoldingRepository;
+import org.pollub.catalog.utils.IsbnNormalizer;
+import org.pollub.catalog.utils.TextFolding;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PostgreSQL full-text search (tsvector + GIN, 'simple' configuration) ranked by ts_rank,
+ * and fuzzy search over diacritic-folded titles and authors (pg_trgm + GIN) ranked by word similarity.
+ */
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class CatalogSearchService implements ICatalogSearchService {
+
+    // Low enough that a word with one or two typos still matches, pg_trgm's default is 0.6
+    private static final String FUZZY_WORD_SIMILARITY = "0.4";
+
+    private final ICatalogSearchRepository searchRepository;
+    private final SearchFoldingRepository foldingRepository;
+    private final ICatalogItemViewRepository itemViewRepository;
+
+    @Override
+    public List<CatalogItemView> search(String query, int page, int size) {
+        // A scanned or typed ISBN is an exact lookup, not a text search
+        String isbn13 = IsbnNormalizer.toIsbn13(query);
+        if (isbn13 != null) {
+            List<Long> bookIds = searchRepository.findBookIdsByIsbn13(isbn13);
+            if (!bookIds.isEmpty()) {
+                return page == 0 ? findInRankOrder(bookIds) : List.of();
+            }
+            // No such book: the digits may still be a number in a title or description
+        }
+        return findInRankOrder(searchRepository.searchItemIds(query.trim(), PageRequest.of(page, size)));
+    }
+
+    @Override
+    public List<CatalogItemView> fuzzySearch(String query, int page, int size) {
+        String folded = TextFolding.fold(query).trim();
+        searchRepository.setWordSimilarityThreshold(FUZZY_WORD_SIMILARITY);
+        return findInRankOrder(searchRepository.fuzzySearchItemIds(folded, PageRequest.of(page, size)));
+    }
+
+    private List<CatalogItemView> findInRankOrder(List<Long> rankedIds) {
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+
+        // Keep the rank order of the ID page
+        Map<Long, Integer> rankById = new HashMap<>();
+        for (int i = 0; i < rankedIds.size(); i++) {
+            rankById.put(rankedIds.get(i), i);
+        }
+        return itemViewRepository.findAllById(rankedIds).stream()
+                .sorted(Comparator.comparing(item -> rankById.get(item.getId())))
+                .toList();
+    }
+
+    /**
+     * Rebuild the search document and folded text of a created or changed item; a deleted item takes both with it.
+     */
+    @EventListener
+    public void onItemChange(CatalogItemChangeEvent event) {
+        if (event.isDeleted()) {
+            return;
+        }
+        List<Long> itemIds = List.of(event.getItemId());
+        searchRepository.refreshSearchVectors(itemIds);
+        foldingRepository.refresh(itemIds);
+    }
+}
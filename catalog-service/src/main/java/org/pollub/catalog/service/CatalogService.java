@@ -1,23 +1,43 @@
 package org.pollub.catalog.service;
 
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.pollub.catalog.client.BranchResponse;
 import org.pollub.catalog.client.BranchServiceClient;
-import org.pollub.catalog.model.Book;
 import org.pollub.catalog.model.BranchInventory;
+import org.pollub.catalog.model.CatalogItemView;
 import org.pollub.catalog.model.CopyStatus;
 import org.pollub.catalog.model.LibraryItem;
+import org.pollub.catalog.model.dto.CatalogItemChangeEvent;
 import org.pollub.catalog.model.dto.HistoryCatalogResponse;
 import org.pollub.catalog.repository.IBranchInventoryRepository;
+import org.pollub.catalog.repository.ICatalogItemViewRepository;
 import org.pollub.catalog.repository.ILibraryItemRepository;
+import org.pollub.catalog.repository.projection.FacetCountRow;
+import org.pollub.catalog.repository.projection.HistoryCatalogRow;
 import org.pollub.common.dto.ReservationItemDto;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -25,94 +45,169 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CatalogService implements ICatalogService {
 
+    private static final int MAX_HISTORY_ITEM_IDS = 10_000;
+    private static final int HISTORY_CHUNK_SIZE = 1000;
+
     private final ILibraryItemRepository<LibraryItem> libraryItemRepository;
+    private final ICatalogItemViewRepository itemViewRepository;
     private final IBranchInventoryRepository branchInventoryRepository;
     private final IBranchInventoryService branchInventoryService;
     private final BranchServiceClient branchServiceClient;
+    private final ICatalogSearchService catalogSearchService;
+    private final IAvailabilityIndexService availabilityIndex;
+    private final ICatalogSnapshotService catalogSnapshot;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
-    public List<LibraryItem> findAll() {
-        return libraryItemRepository.findAll();
+    public List<CatalogItemView> findAll() {
+        if (catalogSnapshot.isReady()) {
+            return catalogSnapshot.findAll();
+        }
+        return itemViewRepository.findAll();
+    }
+
+    @Override
+    public void forEachChunk(int chunkSize, Consumer<List<CatalogItemView>> action) {
+        try (Stream<CatalogItemView> items = itemViewRepository.streamAllByOrderByIdAsc()) {
+            Iterator<CatalogItemView> iterator = items.iterator();
+            List<CatalogItemView> chunk = new ArrayList<>(chunkSize);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == chunkSize || !iterator.hasNext()) {
+                    action.accept(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                    // Handed-off rows are not read again; keep the persistence context from growing
+                    entityManager.clear();
+                }
+            }
+        }
     }
 
     @Override
-    public LibraryItem findById(Long id) {
-        return libraryItemRepository.findById(id)
+    public CatalogItemView findById(Long id) {
+        if (catalogSnapshot.isReady()) {
+            // An item created on another replica may not have reached the snapshot yet
+            Optional<CatalogItemView> item = catalogSnapshot.findById(id);
+            if (item.isPresent()) {
+                return item.get();
+            }
+        }
+        return itemViewRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Item not found: " + id));
     }
 
     @Override
-    public List<LibraryItem> findAvailable() {
+    public List<CatalogItemView> findAllById(Collection<Long> ids) {
+        if (!catalogSnapshot.isReady()) {
+            return itemViewRepository.findAllById(ids);
+        }
+        List<CatalogItemView> items = catalogSnapshot.findAllById(ids);
+        if (items.size() == ids.size()) {
+            return items;
+        }
+        // Items created on another replica may not have reached the snapshot yet
+        Set<Long> found = items.stream().map(CatalogItemView::getId).collect(Collectors.toSet());
+        List<Long> missing = ids.stream().filter(id -> !found.contains(id)).distinct().toList();
+        if (missing.isEmpty()) {
+            return items;
+        }
+        List<CatalogItemView> merged = new ArrayList<>(items);
+        merged.addAll(itemViewRepository.findAllById(missing));
+        return merged;
+    }
+
+    @Override
+    public List<CatalogItemView> findAvailable(int page, int size) {
         // An item is considered available if it has at least one available copy
-        List<Long> availableItemIds = branchInventoryRepository.findAll().stream()
-                .filter(inv -> inv.getStatus() == CopyStatus.AVAILABLE)
-                .map(BranchInventory::getItemId)
-                .distinct()
-                .toList();
-        
-        return libraryItemRepository.findAllById(availableItemIds);
+        return findAllByIdOrdered(findItemIdsByStatus(CopyStatus.AVAILABLE, page, size));
     }
 
     @Override
-    public List<LibraryItem> findRented() {
-        List<Long> rentedItemIds = branchInventoryRepository.findAll().stream()
-                .filter(inv -> inv.getStatus() == CopyStatus.RENTED)
-                .map(BranchInventory::getItemId)
-                .distinct()
-                .toList();
-        
-        return libraryItemRepository.findAllById(rentedItemIds);
+    public List<CatalogItemView> findRented(int page, int size) {
+        return findAllByIdOrdered(findItemIdsByStatus(CopyStatus.RENTED, page, size));
+    }
+
+    private List<Long> findItemIdsByStatus(CopyStatus status, int page, int size) {
+        if (availabilityIndex.isReady()) {
+            // A page past the last match is empty, however large
+            return availabilityIndex.findItemIds(null, status, null, null, (long) page * size, size);
+        }
+        return branchInventoryRepository.findDistinctItemIdsByStatus(status, PageRequest.of(page, size));
     }
 
     @Override
-    public List<LibraryItem> findByUserId(Long userId) {
+    public List<CatalogItemView> findByUserId(Long userId) {
         // Find items rented by this user (from inventory)
         List<Long> itemIds = branchInventoryRepository.findByRentedByUserId(userId).stream()
                 .map(BranchInventory::getItemId)
                 .distinct()
                 .toList();
         
-        return libraryItemRepository.findAllById(itemIds);
+        return findAllById(itemIds);
     }
 
     @Override
-    public List<LibraryItem> findByBranchId(Long branchId) {
+    public List<CatalogItemView> findByBranchId(Long branchId, int page, int size) {
         // Find items that have inventory at this branch
-        List<Long> itemIds = branchInventoryRepository.findAll().stream()
-                .filter(inv -> inv.getBranchId().equals(branchId))
-                .map(BranchInventory::getItemId)
-                .distinct()
-                .toList();
-        
-        return libraryItemRepository.findAllById(itemIds);
+        List<Long> itemIds = branchInventoryRepository.findDistinctItemIdsByBranchId(
+                branchId, PageRequest.of(page, size));
+
+        return findAllByIdOrdered(itemIds);
     }
 
     @Override
-    public List<LibraryItem> findAvailableByBranch(Long branchId) {
+    public List<CatalogItemView> findAvailableByBranch(Long branchId) {
         List<Long> itemIds = branchInventoryService.getAvailableItemsAtBranch(branchId);
-        return libraryItemRepository.findAllById(itemIds);
+        return findAllById(itemIds);
     }
 
     @Override
-    public List<LibraryItem> searchItems(String query) {
-        if (query == null || query.isBlank()) return findAll();
-        String q = query.toLowerCase();
-        return libraryItemRepository.findAll().stream()
-                .filter(i -> containsIgnoreCase(i.getTitle(), q) || containsIgnoreCase(i.getDescription(), q)
-                        || (i instanceof Book b && containsIgnoreCase(b.getAuthor(), q))
-                        || (i instanceof Book bb && containsIgnoreCase(bb.getIsbn(), q)))
-                .collect(Collectors.toList());
+    public Map<String, Integer> countAvailableByGenre(Long branchId) {
+        if (availabilityIndex.isReady()) {
+            return availabilityIndex.countByGenre(branchId, CopyStatus.AVAILABLE);
+        }
+        Map<String, Integer> counts = new TreeMap<>();
+        for (FacetCountRow row : itemViewRepository.countByGenreWithCopyStatus(branchId, CopyStatus.AVAILABLE)) {
+            counts.put(row.getValue(), row.getItems().intValue());
+        }
+        return counts;
     }
 
-    private boolean containsIgnoreCase(String field, String q) {
-        return field != null && field.toLowerCase().contains(q);
+    @Override
+    public List<CatalogItemView> searchItems(String query, int page, int size) {
+        if (query == null || query.isBlank()) {
+            return itemViewRepository.findAll(PageRequest.of(page, size, Sort.by("id"))).getContent();
+        }
+        return catalogSearchService.search(query, page, size);
     }
 
     @Override
-    public List<LibraryItem> findBestsellers() {
-        return libraryItemRepository.findAll().stream()
-                .filter(LibraryItem::getIsBestseller)
-                .collect(Collectors.toList());
+    public List<CatalogItemView> fuzzySearchItems(String query, int page, int size) {
+        if (query == null || query.isBlank()) {
+            return itemViewRepository.findAll(PageRequest.of(page, size, Sort.by("id"))).getContent();
+        }
+        return catalogSearchService.fuzzySearch(query, page, size);
+    }
+
+    @Override
+    public List<CatalogItemView> findBestsellers(int page, int size) {
+        if (catalogSnapshot.isReady()) {
+            return catalogSnapshot.findBestsellers((long) page * size, size);
+        }
+        return itemViewRepository.findByIsBestsellerTrueOrderByIdAsc(PageRequest.of(page, size));
+    }
+
+    /**
+     * Load items by ID, keeping the order of the given ID page.
+     */
+    private List<CatalogItemView> findAllByIdOrdered(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return List.of();
+        }
+        return findAllById(itemIds).stream()
+                .sorted(Comparator.comparing(CatalogItemView::getId))
+                .toList();
     }
 
     @Override
@@ -121,11 +216,13 @@ public class CatalogService implements ICatalogService {
             throw new NoSuchElementException("Item not found: " + id);
         }
         libraryItemRepository.deleteById(id);
+        libraryItemRepository.flush();
+        eventPublisher.publishEvent(CatalogItemChangeEvent.builder().itemId(id).deleted(true).build());
     }
 
     @Override
     public List<ReservationItemDto.Item> getItemsForReservation(List<Long> itemIds) {
-        List<LibraryItem> items = libraryItemRepository.findAllById(itemIds);
+        List<CatalogItemView> items = itemViewRepository.findAllById(itemIds);
         return items.stream()
                 .map(i -> ReservationItemDto.Item.builder()
                         .id(i.getId())
@@ -137,22 +234,30 @@ public class CatalogService implements ICatalogService {
 
     @Override
     public Map<Long, HistoryCatalogResponse> getHistoryCatalogDataByItemIds(List<Long> itemIds) {
-        // Get all branch inventory records for the given items
-        List<BranchInventory> branchInventories = branchInventoryRepository.findAll().stream()
-                .filter(inv -> itemIds.contains(inv.getItemId()))
-                .toList();
+        if (itemIds.size() > MAX_HISTORY_ITEM_IDS) {
+            throw new IllegalArgumentException(
+                    "Too many item ids: " + itemIds.size() + " (max " + MAX_HISTORY_ITEM_IDS + ")");
+        }
+
+        // Load inventory rows joined with item data, one query per chunk of ids
+        List<Long> uniqueItemIds = List.copyOf(new LinkedHashSet<>(itemIds));
+        List<HistoryCatalogRow> rows = new ArrayList<>();
+        for (int from = 0; from < uniqueItemIds.size(); from += HISTORY_CHUNK_SIZE) {
+            List<Long> chunk = uniqueItemIds.subList(from, Math.min(from + HISTORY_CHUNK_SIZE, uniqueItemIds.size()));
+            rows.addAll(branchInventoryRepository.findHistoryCatalogRows(chunk));
+        }
 
         // Extract unique branch IDs
-        List<Long> branchIds = branchInventories.stream()
-                .map(BranchInventory::getBranchId)
+        List<Long> branchIds = rows.stream()
+                .map(HistoryCatalogRow::getBranchId)
                 .distinct()
                 .toList();
 
         // Fetch all branch information in one request
-        Map<Long, org.pollub.catalog.client.BranchResponse> branchDataMap = new java.util.HashMap<>();
+        Map<Long, BranchResponse> branchDataMap = new HashMap<>();
         try {
             if (!branchIds.isEmpty()) {
-                Map<Long, org.pollub.catalog.client.BranchResponse> fetchedBranches = branchServiceClient.getBranchesByIds(branchIds);
+                Map<Long, BranchResponse> fetchedBranches = branchServiceClient.getBranchesByIds(branchIds);
                 if (fetchedBranches != null) {
                     branchDataMap.putAll(fetchedBranches);
                 }
@@ -162,24 +267,15 @@ public class CatalogService implements ICatalogService {
         }
 
         // Map to HistoryCatalogResponse with itemId as key
-        Map<Long, HistoryCatalogResponse> result = new java.util.HashMap<>();
-        for (BranchInventory inv : branchInventories) {
-            LibraryItem item = libraryItemRepository.findById(inv.getItemId()).orElse(null);
-            if (item == null) {
-                continue;
-            }
-
-            String itemTitle = item.getTitle();
-            String itemAuthor = "-";
-            if (item instanceof Book book) {
-                itemAuthor = book.getAuthor() != null ? book.getAuthor() : "-";
-            }
+        Map<Long, HistoryCatalogResponse> result = new HashMap<>();
+        for (HistoryCatalogRow row : rows) {
+            String itemAuthor = row.getAuthor() != null ? row.getAuthor() : "-";
 
             // Get branch information from the pre-fetched map
             String branchName = "Brak danych";
             String branchAddress = "Brak danych";
-            
-            org.pollub.catalog.client.BranchResponse branchResponse = branchDataMap.get(inv.getBranchId());
+
+            BranchResponse branchResponse = branchDataMap.get(row.getBranchId());
             if (branchResponse != null) {
                 branchName = branchResponse.getName() != null ? branchResponse.getName() : "Brak danych";
                 branchAddress = (branchResponse.getAddress() != null ? branchResponse.getAddress() : "Brak danych") +
@@ -187,9 +283,9 @@ public class CatalogService implements ICatalogService {
                         (branchResponse.getCity() != null ? branchResponse.getCity() : "Brak danych");
             }
 
-            result.put(inv.getItemId(), HistoryCatalogResponse.builder()
-                    .itemId(inv.getItemId())
-                    .itemTitle(itemTitle)
+            result.put(row.getItemId(), HistoryCatalogResponse.builder()
+                    .itemId(row.getItemId())
+                    .itemTitle(row.getTitle())
                     .itemAuthor(itemAuthor)
                     .branchName(branchName)
                     .branchAddress(branchAddress)
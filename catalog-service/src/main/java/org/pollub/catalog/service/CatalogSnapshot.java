@@ -0,0 +1,481 @@
+package org.pollub.catalog.service;
+
+import org.pollub.catalog.model.CatalogItemView;
+import org.pollub.catalog.model.ItemType;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, columnar copy of every catalog_item_view row, plus which items have an available copy.
+ * Fixed-width attributes are primitive arrays indexed by row position, free text is UTF-8 in one byte
+ * array per column, and repeated values (authors, directors, publishers, genres) are codes into a shared
+ * dictionary. Rows are sorted by ID and found by binary search; CatalogItemViews are only created on read.
+ * Changes are applied copy-on-write: patch returns a new snapshot that shares the columns and carries the
+ * changed rows in a small overlay, so readers holding the old snapshot never see a partial update.
+ * Once the overlay outgrows a fraction of the rows, compact folds it into fresh columns.
+ */
+final class CatalogSnapshot {
+
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final long NULL_TIME = Long.MIN_VALUE;
+    private static final int NO_CODE = -1;
+    private static final ItemType[] ITEM_TYPES = ItemType.values();
+    private static final int MIN_COMPACTION_OVERLAY = 1024;
+    // Estimated bytes of an overlay row, which is kept as objects
+    private static final int OVERLAY_ROW_BYTES = 512;
+
+    private final int[] ids;
+    private final byte[] itemTypes;
+    private final int[] releaseYears;
+    private final int[] pageCounts;
+    private final int[] durations;
+    private final long[] createdAt;
+    private final TextColumn titles;
+    private final TextColumn descriptions;
+    private final TextColumn imageUrls;
+    private final TextColumn isbns;
+    private final int[] authors;
+    private final int[] directors;
+    private final int[] publishers;
+    private final int[] genres;
+    private final String[] dictionary;
+
+    // Rows changed since the columns were built; they shadow the column row of the same ID
+    private final Map<Integer, Row> overlay;
+    private final RoaringBitmap present;
+    private final RoaringBitmap bestsellers;
+    private final RoaringBitmap available;
+
+    private CatalogSnapshot(Builder columns, Map<Integer, Row> overlay, RoaringBitmap present,
+                            RoaringBitmap bestsellers, RoaringBitmap available) {
+        int rows = columns.size;
+        this.ids = Arrays.copyOf(columns.ids, rows);
+        this.itemTypes = Arrays.copyOf(columns.itemTypes, rows);
+        this.releaseYears = Arrays.copyOf(columns.releaseYears, rows);
+        this.pageCounts = Arrays.copyOf(columns.pageCounts, rows);
+        this.durations = Arrays.copyOf(columns.durations, rows);
+        this.createdAt = Arrays.copyOf(columns.createdAt, rows);
+        this.titles = columns.titles.build(rows);
+        this.descriptions = columns.descriptions.build(rows);
+        this.imageUrls = columns.imageUrls.build(rows);
+        this.isbns = columns.isbns.build(rows);
+        this.authors = Arrays.copyOf(columns.authors, rows);
+        this.directors = Arrays.copyOf(columns.directors, rows);
+        this.publishers = Arrays.copyOf(columns.publishers, rows);
+        this.genres = Arrays.copyOf(columns.genres, rows);
+        this.dictionary = columns.dictionary.toArray(String[]::new);
+        this.overlay = overlay;
+        this.present = present;
+        this.bestsellers = bestsellers;
+        this.available = available;
+    }
+
+    private CatalogSnapshot(CatalogSnapshot base, Map<Integer, Row> overlay, RoaringBitmap present,
+                            RoaringBitmap bestsellers, RoaringBitmap available) {
+        this.ids = base.ids;
+        this.itemTypes = base.itemTypes;
+        this.releaseYears = base.releaseYears;
+        this.pageCounts = base.pageCounts;
+        this.durations = base.durations;
+        this.createdAt = base.createdAt;
+        this.titles = base.titles;
+        this.descriptions = base.descriptions;
+        this.imageUrls = base.imageUrls;
+        this.isbns = base.isbns;
+        this.authors = base.authors;
+        this.directors = base.directors;
+        this.publishers = base.publishers;
+        this.genres = base.genres;
+        this.dictionary = base.dictionary;
+        this.overlay = overlay;
+        this.present = present;
+        this.bestsellers = bestsellers;
+        this.available = available;
+    }
+
+    int size() {
+        return present.getCardinality();
+    }
+
+    /**
+     * @return the item, or null if it is not in the snapshot
+     */
+    CatalogItemView find(long itemId) {
+        if (itemId < 0 || itemId > Integer.MAX_VALUE || !present.contains((int) itemId)) {
+            return null;
+        }
+        int key = (int) itemId;
+        Row row = overlay.get(key);
+        if (row != null) {
+            return row.toView();
+        }
+        int position = Arrays.binarySearch(ids, key);
+        return position >= 0 ? view(position) : null;
+    }
+
+    /**
+     * Get the items with the given IDs, in the order of the IDs, skipping those not in the snapshot.
+     */
+    List<CatalogItemView> findAll(Collection<Long> itemIds) {
+        List<CatalogItemView> items = new ArrayList<>(itemIds.size());
+        for (Long itemId : itemIds) {
+            CatalogItemView item = find(itemId);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Get every item in ID order.
+     */
+    List<CatalogItemView> findAll() {
+        return collect(present, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get a page of bestsellers in ID order.
+     */
+    List<CatalogItemView> findBestsellers(long offset, int limit) {
+        return collect(bestsellers, offset, limit);
+    }
+
+    boolean isAvailable(long itemId) {
+        return itemId >= 0 && itemId <= Integer.MAX_VALUE && available.contains((int) itemId);
+    }
+
+    /**
+     * Return a copy with the given items replaced: each of removedIds is dropped, then each of rows is added.
+     * The availability of every item in checkedIds is set to whether it is in availableIds.
+     */
+    CatalogSnapshot patch(Collection<Long> removedIds, Collection<CatalogItemView> rows,
+                          Collection<Long> checkedIds, Set<Long> availableIds) {
+        // Copying is linear in the catalog, so callers patch once per batch of changes, and only
+        // the structures the batch touches are copied
+        boolean itemsChanged = !removedIds.isEmpty() || !rows.isEmpty();
+        Map<Integer, Row> nextOverlay = itemsChanged ? new HashMap<>(overlay) : overlay;
+        RoaringBitmap nextPresent = itemsChanged ? present.clone() : present;
+        RoaringBitmap nextBestsellers = itemsChanged ? bestsellers.clone() : bestsellers;
+        RoaringBitmap nextAvailable = checkedIds.isEmpty() ? available : available.clone();
+
+        for (Long itemId : removedIds) {
+            int key = Math.toIntExact(itemId);
+            nextOverlay.remove(key);
+            nextPresent.remove(key);
+            nextBestsellers.remove(key);
+        }
+        for (CatalogItemView view : rows) {
+            int key = Math.toIntExact(view.getId());
+            Row row = Row.of(view);
+            nextOverlay.put(key, row);
+            nextPresent.add(key);
+            if (row.bestseller()) {
+                nextBestsellers.add(key);
+            }
+        }
+        for (Long itemId : checkedIds) {
+            int key = Math.toIntExact(itemId);
+            if (availableIds.contains(itemId)) {
+                nextAvailable.add(key);
+            } else {
+                nextAvailable.remove(key);
+            }
+        }
+        return new CatalogSnapshot(this, itemsChanged ? Collections.unmodifiableMap(nextOverlay) : overlay,
+                nextPresent, nextBestsellers, nextAvailable);
+    }
+
+    boolean needsCompaction() {
+        return overlay.size() > Math.max(MIN_COMPACTION_OVERLAY, ids.length / 16);
+    }
+
+    /**
+     * Rebuild the columns with the overlay folded in.
+     */
+    CatalogSnapshot compact() {
+        Builder builder = new Builder(present.getCardinality());
+        IntIterator iterator = present.getIntIterator();
+        while (iterator.hasNext()) {
+            builder.add(find(Integer.toUnsignedLong(iterator.next())));
+        }
+        return builder.build(available.clone());
+    }
+
+    /**
+     * Rough heap footprint: columns, dictionary, bitmaps and overlay.
+     */
+    long estimatedBytes() {
+        long bytes = ids.length * (4L + 1 + 4 + 4 + 4 + 8 + 4 * 4);
+        bytes += titles.estimatedBytes() + descriptions.estimatedBytes()
+                + imageUrls.estimatedBytes() + isbns.estimatedBytes();
+        for (String value : dictionary) {
+            bytes += 40 + value.length();
+        }
+        bytes += present.getLongSizeInBytes() + bestsellers.getLongSizeInBytes() + available.getLongSizeInBytes();
+        return bytes + (long) overlay.size() * OVERLAY_ROW_BYTES;
+    }
+
+    /**
+     * Rough footprint of the columns without descriptions, which are free text of any length.
+     */
+    long estimatedBytesWithoutDescriptions() {
+        return estimatedBytes() - descriptions.estimatedBytes();
+    }
+
+    private List<CatalogItemView> collect(RoaringBitmap itemIds, long offset, int limit) {
+        List<CatalogItemView> items = new ArrayList<>(Math.min(limit, itemIds.getCardinality()));
+        if (offset >= itemIds.getLongCardinality()) {
+            return items;
+        }
+        PeekableIntIterator iterator = itemIds.getIntIterator();
+        iterator.advanceIfNeeded(itemIds.select((int) offset));
+        while (iterator.hasNext() && items.size() < limit) {
+            items.add(find(Integer.toUnsignedLong(iterator.next())));
+        }
+        return items;
+    }
+
+    private CatalogItemView view(int position) {
+        return CatalogItemView.builder()
+                .id(Integer.toUnsignedLong(ids[position]))
+                .itemType(ITEM_TYPES[itemTypes[position]])
+                .title(titles.get(position))
+                .description(descriptions.get(position))
+                .imageUrl(imageUrls.get(position))
+                .releaseYear(intOrNull(releaseYears[position]))
+                .isBestseller(bestsellers.contains(ids[position]))
+                .createdAt(timeOrNull(createdAt[position]))
+                .author(decode(authors[position]))
+                .isbn(isbns.get(position))
+                .pageCount(intOrNull(pageCounts[position]))
+                .publisher(decode(publishers[position]))
+                .genre(decode(genres[position]))
+                .director(decode(directors[position]))
+                .durationMinutes(intOrNull(durations[position]))
+                .build();
+    }
+
+    private String decode(int code) {
+        return code == NO_CODE ? null : dictionary[code];
+    }
+
+    private static Integer intOrNull(int value) {
+        return value == NULL_INT ? null : value;
+    }
+
+    private static LocalDateTime timeOrNull(long micros) {
+        if (micros == NULL_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+    }
+
+    /**
+     * An item changed since the columns were built.
+     */
+    private record Row(long id, ItemType itemType, String title, String description, String imageUrl,
+                       Integer releaseYear, boolean bestseller, LocalDateTime createdAt, String author,
+                       String isbn, Integer pageCount, String publisher, String genre, String director,
+                       Integer durationMinutes) {
+
+        static Row of(CatalogItemView view) {
+            return new Row(view.getId(), view.getItemType(), view.getTitle(), view.getDescription(),
+                    view.getImageUrl(), view.getReleaseYear(), Boolean.TRUE.equals(view.getIsBestseller()),
+                    view.getCreatedAt(), view.getAuthor(), view.getIsbn(), view.getPageCount(),
+                    view.getPublisher(), view.getGenre(), view.getDirector(), view.getDurationMinutes());
+        }
+
+        CatalogItemView toView() {
+            return CatalogItemView.builder()
+                    .id(id)
+                    .itemType(itemType)
+                    .title(title)
+                    .description(description)
+                    .imageUrl(imageUrl)
+                    .releaseYear(releaseYear)
+                    .isBestseller(bestseller)
+                    .createdAt(createdAt)
+                    .author(author)
+                    .isbn(isbn)
+                    .pageCount(pageCount)
+                    .publisher(publisher)
+                    .genre(genre)
+                    .director(director)
+                    .durationMinutes(durationMinutes)
+                    .build();
+        }
+    }
+
+    /**
+     * UTF-8 values of one text column back to back; row i spans offsets[i] to offsets[i + 1].
+     */
+    private record TextColumn(byte[] data, int[] offsets, RoaringBitmap nulls) {
+
+        String get(int position) {
+            if (nulls.contains(position)) {
+                return null;
+            }
+            return new String(data, offsets[position], offsets[position + 1] - offsets[position],
+                    StandardCharsets.UTF_8);
+        }
+
+        long estimatedBytes() {
+            return data.length + 4L * offsets.length + nulls.getLongSizeInBytes();
+        }
+    }
+
+    private static final class TextBuilder {
+
+        private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+        private final RoaringBitmap nulls = new RoaringBitmap();
+        private int[] offsets;
+
+        TextBuilder(int capacity) {
+            offsets = new int[capacity + 1];
+        }
+
+        void add(int position, String value) {
+            if (position + 1 >= offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            if (value == null) {
+                nulls.add(position);
+            } else {
+                data.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+            }
+            offsets[position + 1] = data.size();
+        }
+
+        TextColumn build(int rows) {
+            nulls.runOptimize();
+            return new TextColumn(data.toByteArray(), Arrays.copyOf(offsets, rows + 1), nulls);
+        }
+    }
+
+    /**
+     * Appends rows in ascending ID order into growable columns. Not thread-safe.
+     */
+    static final class Builder {
+
+        private int size;
+        private int[] ids;
+        private byte[] itemTypes;
+        private int[] releaseYears;
+        private int[] pageCounts;
+        private int[] durations;
+        private long[] createdAt;
+        private int[] authors;
+        private int[] directors;
+        private int[] publishers;
+        private int[] genres;
+        private final TextBuilder titles;
+        private final TextBuilder descriptions;
+        private final TextBuilder imageUrls;
+        private final TextBuilder isbns;
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+        private final RoaringBitmap present = new RoaringBitmap();
+        private final RoaringBitmap bestsellers = new RoaringBitmap();
+
+        Builder(int expectedRows) {
+            int capacity = Math.max(16, expectedRows);
+            ids = new int[capacity];
+            itemTypes = new byte[capacity];
+            releaseYears = new int[capacity];
+            pageCounts = new int[capacity];
+            durations = new int[capacity];
+            createdAt = new long[capacity];
+            authors = new int[capacity];
+            directors = new int[capacity];
+            publishers = new int[capacity];
+            genres = new int[capacity];
+            titles = new TextBuilder(capacity);
+            descriptions = new TextBuilder(capacity);
+            imageUrls = new TextBuilder(capacity);
+            isbns = new TextBuilder(capacity);
+        }
+
+        void add(CatalogItemView item) {
+            int key = Math.toIntExact(item.getId());
+            if (size > 0 && key <= ids[size - 1]) {
+                throw new IllegalArgumentException("Rows must be added in ascending ID order, got " + key);
+            }
+            if (size == ids.length) {
+                grow();
+            }
+            ids[size] = key;
+            itemTypes[size] = (byte) item.getItemType().ordinal();
+            releaseYears[size] = item.getReleaseYear() != null ? item.getReleaseYear() : NULL_INT;
+            pageCounts[size] = item.getPageCount() != null ? item.getPageCount() : NULL_INT;
+            durations[size] = item.getDurationMinutes() != null ? item.getDurationMinutes() : NULL_INT;
+            createdAt[size] = item.getCreatedAt() != null ? toMicros(item.getCreatedAt()) : NULL_TIME;
+            authors[size] = encode(item.getAuthor());
+            directors[size] = encode(item.getDirector());
+            publishers[size] = encode(item.getPublisher());
+            genres[size] = encode(item.getGenre());
+            titles.add(size, item.getTitle());
+            descriptions.add(size, item.getDescription());
+            imageUrls.add(size, item.getImageUrl());
+            isbns.add(size, item.getIsbn());
+            present.add(key);
+            if (Boolean.TRUE.equals(item.getIsBestseller())) {
+                bestsellers.add(key);
+            }
+            size++;
+        }
+
+        /**
+         * @param available IDs of items with an available copy; owned by the snapshot afterwards
+         */
+        CatalogSnapshot build(RoaringBitmap available) {
+            present.runOptimize();
+            bestsellers.runOptimize();
+            available.runOptimize();
+            return new CatalogSnapshot(this, Map.of(), present, bestsellers, available);
+        }
+
+        private int encode(String value) {
+            if (value == null) {
+                return NO_CODE;
+            }
+            return codes.computeIfAbsent(value, v -> {
+                dictionary.add(v);
+                return dictionary.size() - 1;
+            });
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            itemTypes = Arrays.copyOf(itemTypes, capacity);
+            releaseYears = Arrays.copyOf(releaseYears, capacity);
+            pageCounts = Arrays.copyOf(pageCounts, capacity);
+            durations = Arrays.copyOf(durations, capacity);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+            authors = Arrays.copyOf(authors, capacity);
+            directors = Arrays.copyOf(directors, capacity);
+            publishers = Arrays.copyOf(publishers, capacity);
+            genres = Arrays.copyOf(genres, capacity);
+        }
+
+        private static long toMicros(LocalDateTime time) {
+            return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1000;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package org.pollub.catalog.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.pollub.catalog.config.HttpCacheConfig;
+import org.pollub.catalog.model.CatalogChange;
+import org.pollub.catalog.model.CatalogItemView;
+import org.pollub.catalog.model.ChangeType;
+import org.pollub.catalog.model.dto.CatalogItemChangeEvent;
+import org.pollub.catalog.model.dto.InventoryChangeEvent;
+import org.pollub.catalog.repository.IBranchInventoryRepository;
+import org.pollub.catalog.repository.IBranchStockRepository;
+import org.pollub.catalog.repository.ICatalogChangeRepository;
+import org.pollub.catalog.repository.ICatalogItemViewRepository;
+import org.pollub.common.cache.InvalidationBus;
+import org.pollub.common.web.ResourceVersions;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Serves item reads from an immutable CatalogSnapshot. Readers take the current snapshot from a volatile
+ * field and never lock; the refresher thread builds the next snapshot and swaps it in.
+ * The snapshot is loaded from catalog_item_view and branch_stock once the application is ready, then
+ * follows the catalog change log, so writes from any replica or the bulk import show up within a refresh
+ * interval. Writes made through this instance are announced on the invalidation bus and applied shortly
+ * after they commit, together with any other writes that committed in the meantime, so each patch of the
+ * snapshot covers a batch of changes and writers never wait for it.
+ * The change log version the snapshot reflects is part of the ETag of item responses
+ * (HttpCacheConfig.SNAPSHOT), so a response is never cached under a tag newer than the snapshot it was read from.
+ */
+@Service
+@Slf4j
+public class CatalogSnapshotService implements ICatalogSnapshotService {
+
+    private static final String BUS_CACHE = "catalogSnapshot";
+    // Writes committing within this window share one patch
+    private static final long PATCH_DELAY_MILLIS = 50;
+
+    private final ICatalogItemViewRepository itemViewRepository;
+    private final IBranchInventoryRepository inventoryRepository;
+    private final IBranchStockRepository stockRepository;
+    private final ChangeLogFollower changeLog;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final InvalidationBus invalidationBus;
+    private final boolean enabled;
+    private final Duration refreshInterval;
+
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicBoolean catchUpQueued = new AtomicBoolean();
+
+    // Replaced, never modified; null until the first load
+    private volatile CatalogSnapshot snapshot;
+    private volatile long appliedVersion;
+
+    public CatalogSnapshotService(ICatalogItemViewRepository itemViewRepository,
+                                  IBranchInventoryRepository inventoryRepository,
+                                  IBranchStockRepository stockRepository,
+                                  ICatalogChangeRepository changeRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  EntityManager entityManager,
+                                  InvalidationBus invalidationBus,
+                                  ResourceVersions resourceVersions,
+                                  @Value("${catalog-snapshot.enabled:false}") boolean enabled,
+                                  @Value("${catalog-snapshot.refresh-interval:1s}") Duration refreshInterval) {
+        this.itemViewRepository = itemViewRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.stockRepository = stockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.changeLog = new ChangeLogFollower(changeRepository);
+        this.entityManager = entityManager;
+        this.invalidationBus = invalidationBus;
+        this.enabled = enabled;
+        this.refreshInterval = refreshInterval;
+        resourceVersions.registerLocal(HttpCacheConfig.SNAPSHOT, this::appliedVersion);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        rebuild();
+        invalidationBus.subscribe(BUS_CACHE, key -> queueCatchUp());
+        refresher.scheduleWithFixedDelay(this::catchUpSafely,
+                refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChange(InventoryChangeEvent event) {
+        announceChange();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChange(CatalogItemChangeEvent event) {
+        announceChange();
+    }
+
+    @Override
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    @Override
+    public Optional<CatalogItemView> findById(Long id) {
+        return Optional.ofNullable(snapshot.find(id));
+    }
+
+    @Override
+    public List<CatalogItemView> findAll() {
+        return snapshot.findAll();
+    }
+
+    @Override
+    public long appliedVersion() {
+        return appliedVersion;
+    }
+
+    @Override
+    public List<CatalogItemView> findAllById(Collection<Long> ids) {
+        return snapshot.findAll(ids);
+    }
+
+    @Override
+    public List<CatalogItemView> findBestsellers(long offset, int limit) {
+        return snapshot.findBestsellers(offset, limit);
+    }
+
+    @Override
+    public Set<Long> getAvailableItemIds(Collection<Long> itemIds) {
+        CatalogSnapshot current = snapshot;
+        return itemIds.stream()
+                .filter(current::isAvailable)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        refresher.execute(() -> {
+            try {
+                load();
+            } catch (Exception e) {
+                log.error("Failed to build catalog snapshot", e);
+            }
+        });
+    }
+
+    private void load() {
+        long started = System.currentTimeMillis();
+        long version = changeLog.latestVersion();
+
+        CatalogSnapshot fresh = transactionTemplate.execute(status -> {
+            CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder(Math.toIntExact(itemViewRepository.count()));
+            try (Stream<CatalogItemView> rows = itemViewRepository.streamAllByOrderByIdAsc()) {
+                rows.forEach(row -> {
+                    builder.add(row);
+                    entityManager.detach(row);
+                });
+            }
+            return builder.build(toBitmap(stockRepository.findAvailableItemIds()));
+        });
+
+        snapshot = fresh;
+        changeLog.startAt(version);
+        appliedVersion = version;
+        int items = Math.max(1, fresh.size());
+        log.info("Built catalog snapshot of {} items in {} ms: {} bytes per item, {} without descriptions",
+                fresh.size(), System.currentTimeMillis() - started,
+                fresh.estimatedBytes() / items, fresh.estimatedBytesWithoutDescriptions() / items);
+    }
+
+    /**
+     * Tell the other replicas about a committed local write and apply it here soon.
+     */
+    private void announceChange() {
+        if (!isReady()) {
+            return;
+        }
+        invalidationBus.publish(BUS_CACHE);
+        queueCatchUp();
+    }
+
+    /**
+     * Schedule one catch-up on the refresher thread unless one is already waiting,
+     * so a burst of writes is applied as a single patch.
+     */
+    private void queueCatchUp() {
+        if (isReady() && catchUpQueued.compareAndSet(false, true)) {
+            refresher.schedule(this::catchUpSafely, PATCH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void catchUpSafely() {
+        catchUpQueued.set(false);
+        if (!isReady()) {
+            return;
+        }
+        try {
+            changeLog.poll(this::apply);
+        } catch (Exception e) {
+            log.warn("Failed to update catalog snapshot", e);
+        }
+    }
+
+    private void apply(List<CatalogChange> changes) {
+        Set<Long> itemIds = new HashSet<>();
+        Set<Long> copyIds = new HashSet<>();
+        for (CatalogChange change : changes) {
+            if (change.getEntityType() == ChangeType.COPY) {
+                copyIds.add(change.getEntityId());
+            } else {
+                itemIds.add(change.getEntityId());
+            }
+        }
+
+        // Deleted items have no row, so they are only removed
+        List<CatalogItemView> rows = itemIds.isEmpty() ? List.of() : itemViewRepository.findAllById(itemIds);
+        Set<Long> checkedIds = new HashSet<>(itemIds);
+        if (!copyIds.isEmpty()) {
+            checkedIds.addAll(inventoryRepository.findItemIdsOfCopies(copyIds));
+        }
+        Set<Long> availableIds = checkedIds.isEmpty()
+                ? Set.of() : new HashSet<>(stockRepository.findAvailableItemIdsIn(checkedIds));
+
+        CatalogSnapshot next = snapshot.patch(itemIds, rows, checkedIds, availableIds);
+        if (next.needsCompaction()) {
+            next = next.compact();
+        }
+        snapshot = next;
+        appliedVersion = changes.getLast().getVersion();
+    }
+
+    private static RoaringBitmap toBitmap(Collection<Long> itemIds) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        itemIds.forEach(itemId -> bitmap.add(Math.toIntExact(itemId)));
+        return bitmap;
+    }
+}
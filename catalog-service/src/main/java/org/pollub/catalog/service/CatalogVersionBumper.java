@@ -0,0 +1,23 @@
+package org.pollub.catalog.service;
+
+import lombok.RequiredArgsConstructor;
+import org.pollub.catalog.config.HttpCacheConfig;
+import org.pollub.catalog.model.dto.CatalogItemChangeEvent;
+import org.pollub.common.web.ResourceVersions;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the catalog ETag version on every item write, once the writing transaction has committed.
+ */
+@Component
+@RequiredArgsConstructor
+class CatalogVersionBumper {
+
+    private final ResourceVersions resourceVersions;
+
+    @EventListener
+    public void onItemChange(CatalogItemChangeEvent event) {
+        resourceVersions.bump(HttpCacheConfig.CATALOG);
+    }
+}
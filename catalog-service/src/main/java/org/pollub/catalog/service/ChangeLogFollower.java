@@ -0,0 +1,55 @@
+package org.pollub.catalog.service;
+
+import org.pollub.catalog.model.CatalogChange;
+import org.pollub.catalog.repository.ICatalogChangeRepository;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Keeps an in-memory read model in step with the catalog change log: remembers the version
+ * the model reflects and hands it newer entries in batches.
+ * It only reads: entries are versioned by CatalogChangeService's sequencer, so a model sees a change
+ * within the sequence interval plus its own refresh interval.
+ * Not thread-safe; each model calls it from its own refresher thread.
+ */
+final class ChangeLogFollower {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final ICatalogChangeRepository changeRepository;
+    private long lastVersion;
+
+    ChangeLogFollower(ICatalogChangeRepository changeRepository) {
+        this.changeRepository = changeRepository;
+    }
+
+    /**
+     * Get the latest sequenced version. Call before reading a snapshot and
+     * pass the result to startAt once it is built: entries sequenced later are replayed, and
+     * replaying a change the snapshot already contains must be harmless.
+     */
+    long latestVersion() {
+        return changeRepository.findMaxVersion();
+    }
+
+    void startAt(long version) {
+        lastVersion = version;
+    }
+
+    /**
+     * Pass all entries newer than the last applied version to the model, oldest first.
+     */
+    void poll(Consumer<List<CatalogChange>> apply) {
+        List<CatalogChange> changes;
+        do {
+            changes = changeRepository.findByVersionGreaterThanOrderByVersionAsc(lastVersion, Limit.of(BATCH_SIZE));
+            if (changes.isEmpty()) {
+                return;
+            }
+            apply.accept(changes);
+            lastVersion = changes.getLast().getVersion();
+        } while (changes.size() == BATCH_SIZE);
+    }
+}
@@ -0,0 +1,14 @@
+package org.pollub.catalog.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-sent event feed of inventory status changes.
+ */
+public interface IAvailabilityFeedService {
+
+    /**
+     * Subscribe to changes of an item, of a branch, or of an item at a branch.
+     */
+    SseEmitter subscribe(Long itemId, Long branchId);
+}
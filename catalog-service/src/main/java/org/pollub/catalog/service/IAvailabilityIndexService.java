@@ -0,0 +1,56 @@
+package org.pollub.catalog.service;
+
+import org.pollub.catalog.model.CopyStatus;
+import org.pollub.catalog.model.ItemType;
+import org.pollub.catalog.model.dto.SearchFacetsDto;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory index of which items have copies in a given status, per branch and overall,
+ * filterable by genre and publisher.
+ * Callers should check isReady() and fall back to the database while the index is being built.
+ */
+public interface IAvailabilityIndexService {
+
+    boolean isReady();
+
+    /**
+     * Version of the last catalog change the index reflects; 0 until it is built.
+     */
+    long appliedVersion();
+
+    /**
+     * Get a page of item IDs, in ascending order, that have a copy with the status at the branch
+     * (or at any branch when branchId is null) and match the optional genre and publisher.
+     */
+    List<Long> findItemIds(Long branchId, CopyStatus status, String genre, String publisher, long offset, int limit);
+
+    /**
+     * Count items matching the same filters as findItemIds.
+     */
+    int countItems(Long branchId, CopyStatus status, String genre, String publisher);
+
+    /**
+     * Count items per genre that have a copy with the status at the branch (or anywhere).
+     */
+    Map<String, Integer> countByGenre(Long branchId, CopyStatus status);
+
+    /**
+     * Count items per publisher that have a copy with the status at the branch (or anywhere).
+     */
+    Map<String, Integer> countByPublisher(Long branchId, CopyStatus status);
+
+    /**
+     * Count genre, publisher, item type and availability facets in one pass over the given items,
+     * or over all items of the type when itemIds is null. Keeps at most maxValues values per facet.
+     */
+    SearchFacetsDto countFacets(ItemType itemType, RoaringBitmap itemIds, int maxValues);
+
+    /**
+     * Rebuild the whole index from the database.
+     */
+    void rebuild();
+}
@@ -5,14 +5,21 @@ import org.pollub.catalog.model.Book;
 import org.pollub.catalog.model.ItemStatus;
 import org.pollub.catalog.model.dto.BookAvailabilityDto;
 import org.pollub.catalog.model.dto.BookCreateDto;
+import org.pollub.catalog.model.dto.BookSummaryDto;
+import org.pollub.catalog.model.dto.CursorPage;
+import org.pollub.catalog.model.dto.ItemAvailabilityDto;
+import org.pollub.catalog.model.dto.SearchFacetsDto;
 import org.springframework.data.domain.Page;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface IBookService {
 
     List<Book> findAll();
+    void forEachBook(Consumer<Book> action);
     Page<Book> getBooksPaginated(int page, int size);
+    Page<BookSummaryDto> getBookSummariesPaginated(int page, int size);
     Book createBook(BookCreateDto dto);
     Book findById(Long id);
     List<Book> findByAuthor(String author);
@@ -21,13 +28,26 @@ public interface IBookService {
     Book updateBook(Long id, BookCreateDto dto);
     void deleteBook(Long id);
     List<Book> findByIsbn(String isbn);
-    Page<Book> searchBooks(String query, ItemStatus status, String publisher, String genres, int page, int size, String sort);
+    Page<Book> searchBooks(String query, ItemStatus status, String publisher, List<String> genres, int page, int size, String sort);
+    Page<BookSummaryDto> searchBookSummaries(String query, ItemStatus status, String publisher, List<String> genres,
+                                             int page, int size, String sort);
+    CursorPage<Book> getBooksAfter(String cursor, int size, boolean includeTotal);
+    CursorPage<BookSummaryDto> getBookSummariesAfter(String cursor, int size, boolean includeTotal);
+    CursorPage<Book> searchBooksAfter(String query, ItemStatus status, String publisher, List<String> genres,
+                                      String cursor, int size, String sort, boolean includeTotal);
+    CursorPage<BookSummaryDto> searchBookSummariesAfter(String query, ItemStatus status, String publisher,
+                                                        List<String> genres, String cursor, int size,
+                                                        String sort, boolean includeTotal);
+    SearchFacetsDto searchFacets(String query, ItemStatus status, String publisher, List<String> genres);
     List<String> getTopGenres();
     List<String> getOtherGenres();
     List<String> getAllPublishers();
     List<String> getAllStatuses();
     List<Book> getRecentBooks(int limit);
+    List<BookSummaryDto> getRecentBookSummaries(int limit);
     List<Book> getPopularBooks(int limit);
+    List<BookSummaryDto> getPopularBookSummaries(int limit);
     BookAvailabilityDto getBookAvailability(Long id);
+    List<ItemAvailabilityDto> getAvailability(List<Long> ids);
 
 }
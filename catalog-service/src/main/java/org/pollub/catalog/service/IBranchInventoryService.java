@@ -6,7 +6,9 @@ import org.pollub.catalog.model.dto.ReservationCatalogRequestDto;
 import org.pollub.common.dto.RentalHistoryDto;
 import org.pollub.common.dto.ReservationResponse;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Service interface for branch inventory operations.
@@ -20,8 +22,9 @@ public interface IBranchInventoryService {
 
     /**
      * Return a rented copy to a specific branch.
+     * If userId is given, only the copy rented by that user is returned; holding none is a conflict.
      */
-    void returnCopy(Long itemId, Long branchId);
+    void returnCopy(Long itemId, Long branchId, Long userId);
 
     /**
      * Reserve a copy of an item at a specific branch.
@@ -30,19 +33,26 @@ public interface IBranchInventoryService {
 
     /**
      * Cancel a reservation.
+     * If userId is given, only the copy reserved by that user is released; holding none is a conflict.
      */
-    BranchInventory cancelReservation(Long itemId, Long branchId);
+    BranchInventory cancelReservation(Long itemId, Long branchId, Long userId);
 
     /**
      * Extend a rental.
+     * If userId is given, only the copy rented by that user is extended; holding none is a conflict.
      */
-    void extendRental(Long itemId, Long branchId, int additionalDays);
+    void extendRental(Long itemId, Long branchId, Long userId, int additionalDays);
 
     /**
      * Get all inventory records for an item.
      */
     List<BranchInventoryDto> getInventoryForItem(Long itemId);
 
+    /**
+     * Get inventory records by copy ID.
+     */
+    List<BranchInventoryDto> getCopies(Collection<Long> copyIds);
+
     /**
      * Get available copies of an item.
      */
@@ -63,16 +73,25 @@ public interface IBranchInventoryService {
      */
     List<Long> getAvailableBranchIds(Long itemId);
 
+    /**
+     * Of the given items, get the IDs of those available at any branch.
+     */
+    Set<Long> getAvailableItemIds(Collection<Long> itemIds);
+
     /**
      * Get items rented by a user.
      */
     List<BranchInventory> getRentedByUser(Long userId);
 
     /**
-     * Add a new inventory record (for admin use).
+     * Add new available copies of an item at a branch (for admin use).
      */
-    BranchInventory addInventory(Long itemId, Long branchId);
+    List<BranchInventory> addInventory(Long itemId, Long branchId, int copies);
 
-    void updateStatus(Long itemId, Long branchId, String statusStr);
+    /**
+     * Set the status of a copy: the given copy, or else the copy reserved by the given user
+     * (holding none is a conflict). One of copyId and userId is required.
+     */
+    void updateStatus(Long itemId, Long branchId, Long copyId, Long userId, String statusStr);
 
 }
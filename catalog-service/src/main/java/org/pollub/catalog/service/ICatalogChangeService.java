@@ -0,0 +1,15 @@
+package org.pollub.catalog.service;
+
+import org.pollub.catalog.model.dto.CatalogChangesDto;
+
+/**
+ * Incremental sync of the catalog through the compacted change log.
+ */
+public interface ICatalogChangeService {
+
+    /**
+     * Get up to limit items and copies changed after version since, with their latest state.
+     * Start with since = 0 for a full copy of the catalog.
+     */
+    CatalogChangesDto getChanges(long since, int limit);
+}
@@ -0,0 +1,29 @@
+package org.pollub.catalog.service;
+
+import org.pollub.catalog.model.dto.ImportProgressDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Bulk import of books and their copies from JSON-lines files.
+ */
+public interface ICatalogImportService {
+
+    /**
+     * Spool the upload to a temporary file and import it in the background.
+     *
+     * @return the initial progress of the started job
+     */
+    ImportProgressDto startImport(InputStream upload) throws IOException;
+
+    /**
+     * Import a file on the calling thread.
+     *
+     * @return the final progress of the import
+     */
+    ImportProgressDto importFile(Path file) throws IOException;
+
+    ImportProgressDto getProgress(String jobId);
+}
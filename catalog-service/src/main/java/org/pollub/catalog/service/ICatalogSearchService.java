@@ -0,0 +1,22 @@
+package org.pollub.catalog.service;
+
+import org.pollub.catalog.model.CatalogItemView;
+
+import java.util.List;
+
+/**
+ * Full-text and fuzzy search over the catalog.
+ */
+public interface ICatalogSearchService {
+
+    /**
+     * Get a page of items matching the query, most relevant first.
+     */
+    List<CatalogItemView> search(String query, int page, int size);
+
+    /**
+     * Get a page of items whose title or author/director resembles the query, ignoring case,
+     * diacritics and small typos, most similar first.
+     */
+    List<CatalogItemView> fuzzySearch(String query, int page, int size);
+}
@@ -1,23 +1,29 @@
 package org.pollub.catalog.service;
 
-import org.pollub.catalog.model.LibraryItem;
+import org.pollub.catalog.model.CatalogItemView;
 import org.pollub.catalog.model.dto.HistoryCatalogResponse;
 import org.pollub.common.dto.ReservationItemDto;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface ICatalogService {
 
-    List<LibraryItem> findAll();
-    LibraryItem findById(Long id);
-    List<LibraryItem> findAvailable();
-    List<LibraryItem> findRented();
-    List<LibraryItem> findByUserId(Long userId);
-    List<LibraryItem> findByBranchId(Long branchId);
-    List<LibraryItem> findAvailableByBranch(Long branchId);
-    List<LibraryItem> searchItems(String query);
-    List<LibraryItem> findBestsellers();
+    List<CatalogItemView> findAll();
+    void forEachChunk(int chunkSize, Consumer<List<CatalogItemView>> action);
+    CatalogItemView findById(Long id);
+    List<CatalogItemView> findAllById(Collection<Long> ids);
+    List<CatalogItemView> findAvailable(int page, int size);
+    List<CatalogItemView> findRented(int page, int size);
+    List<CatalogItemView> findByUserId(Long userId);
+    List<CatalogItemView> findByBranchId(Long branchId, int page, int size);
+    List<CatalogItemView> findAvailableByBranch(Long branchId);
+    Map<String, Integer> countAvailableByGenre(Long branchId);
+    List<CatalogItemView> searchItems(String query, int page, int size);
+    List<CatalogItemView> fuzzySearchItems(String query, int page, int size);
+    List<CatalogItemView> findBestsellers(int page, int size);
     void deleteItem(Long id);
 
     List<ReservationItemDto.Item> getItemsForReservation(List<Long> itemIds);
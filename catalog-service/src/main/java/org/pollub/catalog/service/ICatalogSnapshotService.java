@@ -0,0 +1,53 @@
+package org.pollub.catalog.service;
+
+import org.pollub.catalog.model.CatalogItemView;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Optional in-memory snapshot of every catalog item and whether it has an available copy,
+ * so item reads need no database round trip. Enabled with catalog-snapshot.enabled.
+ * Callers should check isReady() and fall back to the database when it is not.
+ */
+public interface ICatalogSnapshotService {
+
+    /**
+     * @return true once a snapshot is loaded; always false when the mode is disabled
+     */
+    boolean isReady();
+
+    /**
+     * Version of the last catalog change the snapshot reflects; 0 until it is loaded.
+     */
+    long appliedVersion();
+
+    Optional<CatalogItemView> findById(Long id);
+
+    /**
+     * Get every item in ID order.
+     */
+    List<CatalogItemView> findAll();
+
+    /**
+     * Get the items with the given IDs, in the order of the IDs, skipping unknown ones.
+     */
+    List<CatalogItemView> findAllById(Collection<Long> ids);
+
+    /**
+     * Get a page of bestsellers in ID order.
+     */
+    List<CatalogItemView> findBestsellers(long offset, int limit);
+
+    /**
+     * Of the given items, get those with an available copy at any branch.
+     */
+    Set<Long> getAvailableItemIds(Collection<Long> itemIds);
+
+    /**
+     * Rebuild the whole snapshot from the database. Does nothing when the mode is disabled.
+     */
+    void rebuild();
+}
@@ -0,0 +1,23 @@
+package org.pollub.catalog.service;
+
+import org.pollub.catalog.model.dto.SuggestionDto;
+
+import java.util.List;
+
+/**
+ * Type-ahead suggestions over item titles, authors/directors, publishers and ISBNs.
+ */
+public interface ISuggestService {
+
+    /**
+     * Get up to limit items whose words start with the words of the query, bestsellers first,
+     * then most recent. The last word is matched as a prefix unless the query ends with a space.
+     * Returns nothing while the index is being built.
+     */
+    List<SuggestionDto> suggest(String query, int limit);
+
+    /**
+     * Rebuild the whole index from the database.
+     */
+    void rebuild();
+}
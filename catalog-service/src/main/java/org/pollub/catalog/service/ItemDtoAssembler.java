@@ -0,0 +1,92 @@
+package org.pollub.catalog.service;
+
+import lombok.RequiredArgsConstructor;
+import org.pollub.catalog.model.BranchInventory;
+import org.pollub.catalog.model.CatalogItemView;
+import org.pollub.common.dto.ItemDto;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Builds ItemDtos for whole lists of items at once.
+ * Availability and item rows are loaded with IN-list queries per list, not per item,
+ * and item rows come from the flattened catalog_item_view.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemDtoAssembler {
+
+    private final ICatalogService catalogService;
+    private final IBranchInventoryService branchInventoryService;
+
+    public ItemDto toDto(CatalogItemView item) {
+        return toDtos(List.of(item)).getFirst();
+    }
+
+    public List<ItemDto> toDtos(List<CatalogItemView> items) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> availableIds = branchInventoryService.getAvailableItemIds(
+                items.stream().map(CatalogItemView::getId).toList());
+
+        return items.stream()
+                .map(item -> toDto(item, availableIds.contains(item.getId())))
+                .toList();
+    }
+
+    /**
+     * Build DTOs for a user's rented copies, enriched with rental data from each inventory row.
+     */
+    public List<ItemDto> toRentalDtos(List<BranchInventory> rentedInventory) {
+        if (rentedInventory.isEmpty()) {
+            return List.of();
+        }
+        List<Long> itemIds = rentedInventory.stream()
+                .map(BranchInventory::getItemId)
+                .distinct()
+                .toList();
+        Map<Long, CatalogItemView> itemsById = catalogService.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(CatalogItemView::getId, Function.identity()));
+        Set<Long> availableIds = branchInventoryService.getAvailableItemIds(itemIds);
+
+        return rentedInventory.stream()
+                .filter(inventory -> itemsById.containsKey(inventory.getItemId()))
+                .map(inventory -> {
+                    CatalogItemView item = itemsById.get(inventory.getItemId());
+                    ItemDto dto = toDto(item, availableIds.contains(item.getId()));
+                    dto.setDueDate(inventory.getDueDate());
+                    dto.setRentedFromBranchId(inventory.getBranchId());
+                    dto.setRentExtended(inventory.getRentExtended());
+                    return dto;
+                })
+                .toList();
+    }
+
+    private ItemDto toDto(CatalogItemView item, boolean available) {
+        // Compute overall status based on inventory
+        String overallStatus = available ? "AVAILABLE" : "UNAVAILABLE";
+
+        // Attributes of other item types are null in the view
+        return ItemDto.builder()
+                .id(item.getId())
+                .title(item.getTitle())
+                .description(item.getDescription())
+                .imageUrl(item.getImageUrl())
+                .itemType(item.getItemType().name())
+                .status(overallStatus)
+                .releaseYear(item.getReleaseYear())
+                .isBestseller(item.getIsBestseller())
+                .author(item.getAuthor())
+                .isbn(item.getIsbn())
+                .pageCount(item.getPageCount())
+                .director(item.getDirector())
+                .durationMinutes(item.getDurationMinutes())
+                .build();
+    }
+}
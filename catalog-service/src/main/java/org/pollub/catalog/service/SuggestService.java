@@ -0,0 +1,295 @@
+package org.pollub.catalog.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.pollub.catalog.model.CatalogChange;
+import org.pollub.catalog.model.ChangeType;
+import org.pollub.catalog.model.dto.SuggestionDto;
+import org.pollub.catalog.repository.ICatalogChangeRepository;
+import org.pollub.catalog.repository.ICatalogItemViewRepository;
+import org.pollub.catalog.repository.projection.SuggestRow;
+import org.pollub.catalog.utils.IsbnNormalizer;
+import org.pollub.catalog.utils.TextFolding;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Answers type-ahead queries from memory. Every folded word of an item's title, creator and
+ * publisher, and its normalized ISBN, is a term in a sorted map from term to a bitmap of item IDs;
+ * a prefix is the sorted range of terms starting with it.
+ * Results are ranked bestsellers first, then by descending ID: IDs are assigned in creation order,
+ * so walking a bitmap backwards yields the most recent items first and the top results are found
+ * without scoring every match.
+ * Built from catalog_item_view once the application is ready, then kept current by following the
+ * item entries of the catalog change log, so writes on any instance show up within a refresh interval.
+ */
+@Service
+@Slf4j
+public class SuggestService implements ISuggestService {
+
+    // A one-letter prefix would expand to a large part of the dictionary
+    private static final int MIN_SINGLE_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_TERMS = 1000;
+
+    private final ICatalogItemViewRepository itemViewRepository;
+    private final ChangeLogFollower changeLog;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration refreshInterval;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor();
+
+    // Guarded by lock
+    private Index index = new Index();
+    private volatile boolean ready;
+
+    public SuggestService(ICatalogItemViewRepository itemViewRepository,
+                          ICatalogChangeRepository changeRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${suggest.refresh-interval:1s}") Duration refreshInterval) {
+        this.itemViewRepository = itemViewRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.changeLog = new ChangeLogFollower(changeRepository);
+        this.refreshInterval = refreshInterval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        rebuild();
+        refresher.scheduleWithFixedDelay(this::catchUpSafely,
+                refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    @Override
+    public List<SuggestionDto> suggest(String query, int limit) {
+        if (!ready || query == null) {
+            return List.of();
+        }
+        List<String> words = TextFolding.tokens(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        boolean lastIsPrefix = !Character.isWhitespace(query.charAt(query.length() - 1));
+        String last = words.getLast();
+        if (lastIsPrefix && words.size() == 1 && last.length() < MIN_SINGLE_PREFIX_LENGTH) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matches = null;
+            for (int i = 0; i < words.size(); i++) {
+                boolean prefix = lastIsPrefix && i == words.size() - 1;
+                RoaringBitmap wordMatches = prefix ? index.withPrefix(words.get(i)) : index.terms.get(words.get(i));
+                if (wordMatches == null) {
+                    return List.of();
+                }
+                matches = matches == null ? wordMatches : RoaringBitmap.and(matches, wordMatches);
+            }
+
+            List<SuggestionDto> suggestions = new ArrayList<>(limit);
+            collectNewestFirst(RoaringBitmap.and(matches, index.bestsellers), limit, suggestions);
+            collectNewestFirst(RoaringBitmap.andNot(matches, index.bestsellers), limit, suggestions);
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collectNewestFirst(RoaringBitmap itemIds, int limit, List<SuggestionDto> suggestions) {
+        IntIterator iterator = itemIds.getReverseIntIterator();
+        while (iterator.hasNext() && suggestions.size() < limit) {
+            int itemId = iterator.next();
+            Entry entry = index.entries.get(itemId);
+            suggestions.add(SuggestionDto.builder()
+                    .id(Integer.toUnsignedLong(itemId))
+                    .itemType(entry.itemType())
+                    .title(entry.title())
+                    .creator(entry.creator())
+                    .isBestseller(entry.bestseller())
+                    .build());
+        }
+    }
+
+    @Override
+    public void rebuild() {
+        refresher.execute(() -> {
+            try {
+                load();
+            } catch (Exception e) {
+                log.error("Failed to build suggestion index", e);
+            }
+        });
+    }
+
+    private void load() {
+        long started = System.currentTimeMillis();
+        long version = changeLog.latestVersion();
+
+        Index fresh = new Index();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<SuggestRow> rows = itemViewRepository.streamSuggestRows()) {
+                rows.forEach(fresh::add);
+            }
+        });
+        fresh.bestsellers.runOptimize();
+
+        lock.writeLock().lock();
+        try {
+            index = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        changeLog.startAt(version);
+        ready = true;
+        log.info("Built suggestion index of {} items and {} terms in {} ms",
+                fresh.entries.size(), fresh.terms.size(), System.currentTimeMillis() - started);
+    }
+
+    private void catchUpSafely() {
+        if (!ready) {
+            return;
+        }
+        try {
+            changeLog.poll(this::apply);
+        } catch (Exception e) {
+            log.warn("Failed to update suggestion index", e);
+        }
+    }
+
+    private void apply(List<CatalogChange> changes) {
+        Set<Long> itemIds = new HashSet<>();
+        for (CatalogChange change : changes) {
+            if (change.getEntityType() == ChangeType.ITEM) {
+                itemIds.add(change.getEntityId());
+            }
+        }
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        // Deleted items have no row, so they are only removed
+        List<SuggestRow> rows = itemViewRepository.findSuggestRowsByIdIn(itemIds);
+
+        lock.writeLock().lock();
+        try {
+            itemIds.forEach(itemId -> index.remove(Math.toIntExact(itemId)));
+            rows.forEach(index::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private record Entry(String itemType, String title, String creator, String publisher, String isbn,
+                         boolean bestseller) {
+
+        Set<String> terms() {
+            Set<String> terms = new HashSet<>();
+            terms.addAll(TextFolding.tokens(title));
+            terms.addAll(TextFolding.tokens(creator));
+            terms.addAll(TextFolding.tokens(publisher));
+            String normalizedIsbn = IsbnNormalizer.normalize(isbn);
+            if (normalizedIsbn != null) {
+                terms.add(normalizedIsbn.toLowerCase(Locale.ROOT));
+            }
+            return terms;
+        }
+    }
+
+    /**
+     * A term ranked by the best item it holds, in the order suggestions are ranked.
+     */
+    private record RankedTerm(RoaringBitmap itemIds, boolean hasBestseller, int newestId) {
+
+        static final Comparator<RankedTerm> BEST_FIRST = Comparator.comparing(RankedTerm::hasBestseller)
+                .thenComparingInt(RankedTerm::newestId)
+                .reversed();
+    }
+
+    /**
+     * The term dictionary and item entries. Not thread-safe; guarded by the enclosing lock.
+     */
+    private static final class Index {
+
+        private final NavigableMap<String, RoaringBitmap> terms = new TreeMap<>();
+        private final Map<Integer, Entry> entries = new HashMap<>();
+        private final RoaringBitmap bestsellers = new RoaringBitmap();
+
+        RoaringBitmap withPrefix(String prefix) {
+            Map<String, RoaringBitmap> range = terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+            if (range.isEmpty()) {
+                return null;
+            }
+            if (range.size() <= MAX_PREFIX_TERMS) {
+                return RoaringBitmap.or(range.values().iterator());
+            }
+            // Too many terms to merge: keep those holding the highest-ranked items, not the first alphabetically
+            return RoaringBitmap.or(range.values().stream()
+                    .map(itemIds -> new RankedTerm(itemIds, RoaringBitmap.intersects(itemIds, bestsellers), itemIds.last()))
+                    .sorted(RankedTerm.BEST_FIRST)
+                    .limit(MAX_PREFIX_TERMS)
+                    .map(RankedTerm::itemIds)
+                    .iterator());
+        }
+
+        void add(SuggestRow row) {
+            int itemId = Math.toIntExact(row.getId());
+            boolean bestseller = Boolean.TRUE.equals(row.getIsBestseller());
+            Entry entry = new Entry(row.getItemType().name(), row.getTitle(), row.getCreator(),
+                    row.getPublisher(), row.getIsbn(), bestseller);
+
+            entries.put(itemId, entry);
+            for (String term : entry.terms()) {
+                terms.computeIfAbsent(term, t -> new RoaringBitmap()).add(itemId);
+            }
+            if (bestseller) {
+                bestsellers.add(itemId);
+            }
+        }
+
+        void remove(int itemId) {
+            Entry entry = entries.remove(itemId);
+            if (entry == null) {
+                return;
+            }
+            for (String term : entry.terms()) {
+                RoaringBitmap itemIds = terms.get(term);
+                if (itemIds != null) {
+                    itemIds.remove(itemId);
+                    if (itemIds.isEmpty()) {
+                        terms.remove(term);
+                    }
+                }
+            }
+            bestsellers.remove(itemId);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.pollub.catalog.utils;
+
+import java.util.Locale;
+
+/**
+ * Normalizes ISBNs into a comparable key: hyphens and whitespace removed, check digit 'X' upper-cased.
+ * Valid ISBN-10s and ISBN-13s are further canonicalized to ISBN-13, so every form of the same book
+ * has the same key.
+ */
+public final class IsbnNormalizer {
+
+    private IsbnNormalizer() {
+    }
+
+    /**
+     * @return the normalized ISBN, or null if nothing is left after normalization
+     */
+    public static String normalize(String isbn) {
+        if (isbn == null) {
+            return null;
+        }
+        StringBuilder normalized = new StringBuilder(isbn.length());
+        for (char c : isbn.toCharArray()) {
+            if (c != '-' && !Character.isWhitespace(c)) {
+                normalized.append(c);
+            }
+        }
+        return normalized.isEmpty() ? null : normalized.toString().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * @return the ISBN-13 of a valid ISBN-10 or ISBN-13 in any of its written forms, or null if the
+     * input is not a valid ISBN
+     */
+    public static String toIsbn13(String isbn) {
+        String normalized = normalize(isbn);
+        if (normalized == null) {
+            return null;
+        }
+        if (normalized.length() == 10 && isValidIsbn10(normalized)) {
+            String body = "978" + normalized.substring(0, 9);
+            return body + isbn13CheckDigit(body);
+        }
+        if (normalized.length() == 13 && isDigits(normalized)
+                && isbn13CheckDigit(normalized.substring(0, 12)) == normalized.charAt(12)) {
+            return normalized;
+        }
+        return null;
+    }
+
+    /**
+     * @return the ISBN-13 of a valid ISBN, otherwise the normalized input; null if nothing is left
+     */
+    public static String canonicalize(String isbn) {
+        String isbn13 = toIsbn13(isbn);
+        return isbn13 != null ? isbn13 : normalize(isbn);
+    }
+
+    private static boolean isValidIsbn10(String isbn) {
+        int sum = 0;
+        for (int i = 0; i < 10; i++) {
+            char c = isbn.charAt(i);
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = c - '0';
+            } else if (c == 'X' && i == 9) {
+                digit = 10;
+            } else {
+                return false;
+            }
+            sum += digit * (10 - i);
+        }
+        return sum % 11 == 0;
+    }
+
+    private static char isbn13CheckDigit(String first12) {
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (first12.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return (char) ('0' + (10 - sum % 10) % 10);
+    }
+
+    private static boolean isDigits(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < '0' || text.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
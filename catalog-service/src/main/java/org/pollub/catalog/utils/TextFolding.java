@@ -0,0 +1,55 @@
+package org.pollub.catalog.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Folds text into a comparable search form: lower case, without diacritics, so "Żeromski"
+ * and "zeromski" compare equal.
+ */
+public final class TextFolding {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // Any script's letters and digits; \p{Alnum} alone is ASCII-only
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TextFolding() {
+    }
+
+    /**
+     * @return the folded text, or null for null input
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return null;
+        }
+        String stripped = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        // Letters with a stroke have no decomposed form
+        return stripped
+                .replace('ł', 'l').replace('Ł', 'L')
+                .replace('đ', 'd').replace('Đ', 'D')
+                .replace('ø', 'o').replace('Ø', 'O')
+                .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Split folded text into words, dropping punctuation inside them ("978-83" becomes "97883").
+     */
+    public static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String word : WHITESPACE.split(fold(text))) {
+            String token = NON_ALPHANUMERIC.matcher(word).replaceAll("");
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
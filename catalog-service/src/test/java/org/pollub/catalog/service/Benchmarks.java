@@ -0,0 +1,58 @@
+package org.pollub.catalog.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Times a call repeatedly on the current thread and reports its median latency and heap allocation.
+ * Used by the opt-in benchmarks, which run against the PostgreSQL database named by {@value #URL_PROPERTY}.
+ */
+final class Benchmarks {
+
+    static final String URL_PROPERTY = "benchmark.url";
+    static final String USERNAME_PROPERTY = "benchmark.username";
+    static final String PASSWORD_PROPERTY = "benchmark.password";
+
+    private static final int WARMUP_RUNS = 20;
+    private static final int MEASURED_RUNS = 100;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private Benchmarks() {
+    }
+
+    static Result measure(Runnable call) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            call.run();
+        }
+        long threadId = Thread.currentThread().threadId();
+        long[] nanos = new long[MEASURED_RUNS];
+        long[] bytes = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            call.run();
+            nanos[i] = System.nanoTime() - start;
+            bytes[i] = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        }
+        return new Result(median(nanos), median(bytes));
+    }
+
+    private static long median(long[] values) {
+        Arrays.sort(values);
+        return values[values.length / 2];
+    }
+
+    record Result(long nanos, long bytes) {
+
+        double millis() {
+            return nanos / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.3f ms, %d KiB allocated", millis(), bytes / 1024);
+        }
+    }
+}
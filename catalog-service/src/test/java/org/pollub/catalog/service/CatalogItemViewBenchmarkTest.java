@@ -0,0 +1,113 @@
+package org.pollub.catalog.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.pollub.catalog.model.LibraryItem;
+import org.pollub.catalog.repository.ICatalogItemViewRepository;
+import org.pollub.catalog.repository.ILibraryItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency and allocation of loading an item list through the JOINED LibraryItem hierarchy (before)
+ * and through the flattened catalog_item_view read model (after).
+ * Opt-in: {@code mvn test -Dbenchmark.url=jdbc:postgresql://localhost:5432/scratch}. Point it at an empty
+ * scratch database; the seeded rows are rolled back when the test ends.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=update")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfSystemProperty(named = Benchmarks.URL_PROPERTY, matches = ".+")
+@Slf4j
+class CatalogItemViewBenchmarkTest {
+
+    private static final int ITEMS = 100_000;
+    // Every fifth item is a movie, the rest are books
+    private static final int MOVIE_EVERY = 5;
+    private static final int LIST_SIZE = 500;
+
+    @SpringBootConfiguration
+    @EntityScan("org.pollub.catalog.model")
+    @EnableJpaRepositories("org.pollub.catalog.repository")
+    static class Config {
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty(Benchmarks.URL_PROPERTY));
+        registry.add("spring.datasource.username", () -> System.getProperty(Benchmarks.USERNAME_PROPERTY, "postgres"));
+        registry.add("spring.datasource.password", () -> System.getProperty(Benchmarks.PASSWORD_PROPERTY, "postgres"));
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private ILibraryItemRepository<LibraryItem> libraryItemRepository;
+    @Autowired
+    private ICatalogItemViewRepository itemViewRepository;
+
+    @Test
+    void readModelListsItemsFasterAndLeanerThanJoinedHierarchy() {
+        seed();
+        // Spread over the whole table rather than one contiguous id range
+        List<Long> ids = LongStream.rangeClosed(1, LIST_SIZE)
+                .map(i -> i * (ITEMS / LIST_SIZE))
+                .boxed()
+                .toList();
+
+        Benchmarks.Result joined = Benchmarks.measure(() -> list(libraryItemRepository::findAllById, ids));
+        Benchmarks.Result flattened = Benchmarks.measure(() -> list(itemViewRepository::findAllById, ids));
+
+        log.info("{} items via JOINED library_items: {}", LIST_SIZE, joined);
+        log.info("{} items via catalog_item_view:     {}", LIST_SIZE, flattened);
+
+        assertThat(flattened.nanos()).isLessThan(joined.nanos());
+        assertThat(flattened.bytes()).isLessThan(joined.bytes());
+    }
+
+    private <T> void list(Function<List<Long>, List<T>> finder, List<Long> ids) {
+        assertThat(finder.apply(ids)).hasSize(ids.size());
+        // Each run loads from the database, not from the persistence context
+        entityManager.clear();
+    }
+
+    private void seed() {
+        jdbcTemplate.update("INSERT INTO library_items (id, title, description, item_type, release_year, " +
+                        "is_bestseller, created_at) " +
+                        "SELECT g, 'Item ' || g, 'Description of item ' || g, " +
+                        "CASE WHEN g % ? = 0 THEN 'MOVIE' ELSE 'BOOK' END, 1950 + g % 75, g % 50 = 0, now() " +
+                        "FROM generate_series(1, ?) g",
+                MOVIE_EVERY, ITEMS);
+        jdbcTemplate.update("INSERT INTO books (id, page_count, isbn, paper_type, publisher, shelf_number, author, genre) " +
+                        "SELECT g, 100 + g % 900, lpad(g::text, 13, '0'), 'Standard', 'Publisher ' || g % 200, " +
+                        "g % 40, 'Author ' || g % 5000, 'Genre ' || g % 30 " +
+                        "FROM generate_series(1, ?) g WHERE g % ? <> 0",
+                ITEMS, MOVIE_EVERY);
+        jdbcTemplate.update("INSERT INTO movie_discs (id, director, resolution, file_format, digital_rights, " +
+                        "duration, genre, shelf_number) " +
+                        "SELECT g, 'Director ' || g % 1000, '1080p', 'MKV', 'None', 80 + g % 100, 'Genre ' || g % 30, g % 40 " +
+                        "FROM generate_series(1, ?) g WHERE g % ? = 0",
+                ITEMS, MOVIE_EVERY);
+        itemViewRepository.refreshMissing();
+        jdbcTemplate.execute("ANALYZE library_items");
+        jdbcTemplate.execute("ANALYZE books");
+        jdbcTemplate.execute("ANALYZE movie_discs");
+        jdbcTemplate.execute("ANALYZE catalog_item_view");
+    }
+}
@@ -0,0 +1,130 @@
+package org.pollub.catalog.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.pollub.catalog.config.SearchIndexInitializer;
+import org.pollub.catalog.model.CatalogItemView;
+import org.pollub.catalog.repository.ICatalogItemViewRepository;
+import org.pollub.catalog.repository.SearchFoldingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of typo-tolerant, diacritic-folding fuzzy search over 1M titles.
+ * Opt-in: {@code mvn test -Dbenchmark.url=jdbc:postgresql://localhost:5432/scratch}. Point it at an empty
+ * scratch database with pg_trgm available. SearchIndexInitializer creates the folded column and trigram
+ * indexes on startup; the seeded rows are rolled back when the test ends.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=update")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfSystemProperty(named = Benchmarks.URL_PROPERTY, matches = ".+")
+@Slf4j
+class FuzzySearchBenchmarkTest {
+
+    private static final int TITLES = 1_000_000;
+    private static final int PAGE_SIZE = 20;
+
+    private static final long PRZEDWIOSNIE = TITLES + 1L;
+    private static final long OGNIEM_I_MIECZEM = TITLES + 2L;
+    private static final long CHLOPI = TITLES + 3L;
+
+    // Misspelt, typed without diacritics, against the item it must find first
+    private static final Map<String, Long> QUERIES = Map.of(
+            "zeromsky", PRZEDWIOSNIE,
+            "przedwiosnie", PRZEDWIOSNIE,
+            "sienkiewcz", OGNIEM_I_MIECZEM,
+            "wladyslaw reymnt", CHLOPI);
+
+    // Filler titles and authors are drawn from common words, so they share trigrams with real queries
+    private static final String FILLER = "SELECT g AS id, " +
+            "initcap((ARRAY['dom','las','rzeka','miasto','noc','dzien','wiatr','morze','gora','droga','zima'," +
+            "'lato','ogien','woda','ziemia','niebo','ksiega','opowiesc','kronika','legenda','pamietnik'," +
+            "'historia','sekret','cien'])[1 + g % 24]) || ' ' || " +
+            "(ARRAY['pierwszy','ostatni','dawny','cichy','czarny','bialy','zloty','stary','nowy','dziki'," +
+            "'daleki','zimny','jasny','ciemny','wielki','maly','krotki','dlugi','ukryty','zapomniany'," +
+            "'utracony','wieczny','samotny'])[1 + (g / 24) % 23] || ' ' || g AS title, " +
+            "initcap((ARRAY['jan','anna','piotr','maria','tomasz','ewa','marek','zofia','adam','katarzyna'," +
+            "'pawel','agnieszka'])[1 + g % 12]) || ' ' || " +
+            "initcap((ARRAY['kowalski','nowak','wisniewski','wojcik','kaminski','lewandowski','zielinski'," +
+            "'szymanski','wozniak','dabrowski','kozlowski','jankowski','mazur','kwiatkowski','krawczyk'," +
+            "'piotrowski','grabowski','pawlowski','michalski','krol','wieczorek','jablonski','wrobel'," +
+            "'majewski'])[1 + (g / 12) % 24]) AS author " +
+            "FROM generate_series(1, ?) g";
+
+    @SpringBootConfiguration
+    @EntityScan("org.pollub.catalog.model")
+    @EnableJpaRepositories("org.pollub.catalog.repository")
+    @Import({CatalogSearchService.class, SearchFoldingRepository.class, SearchIndexInitializer.class})
+    static class Config {
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty(Benchmarks.URL_PROPERTY));
+        registry.add("spring.datasource.username", () -> System.getProperty(Benchmarks.USERNAME_PROPERTY, "postgres"));
+        registry.add("spring.datasource.password", () -> System.getProperty(Benchmarks.PASSWORD_PROPERTY, "postgres"));
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private SearchFoldingRepository foldingRepository;
+    @Autowired
+    private ICatalogItemViewRepository itemViewRepository;
+    @Autowired
+    private ICatalogSearchService catalogSearchService;
+
+    @Test
+    void fuzzySearchFindsMisspeltTitlesAndAuthorsAmongOneMillion() {
+        seed();
+
+        QUERIES.forEach((query, expectedId) -> {
+            Benchmarks.Result result = Benchmarks.measure(() -> {
+                List<CatalogItemView> page = catalogSearchService.fuzzySearch(query, 0, PAGE_SIZE);
+                assertThat(page).isNotEmpty();
+                assertThat(page.getFirst().getId()).isEqualTo(expectedId);
+            });
+            log.info("fuzzy '{}' over {} titles: {}", query, TITLES, result);
+        });
+    }
+
+    private void seed() {
+        // Filler text is plain ASCII, so lower() folds it exactly like TextFolding would
+        jdbcTemplate.update("INSERT INTO library_items (id, title, item_type, is_bestseller, created_at, search_folded) " +
+                "SELECT id, title, 'BOOK', false, now(), lower(title || ' ' || author) FROM (" + FILLER + ") f", TITLES);
+        jdbcTemplate.update("INSERT INTO books (id, page_count, isbn, paper_type, publisher, shelf_number, author, genre) " +
+                "SELECT id, 300, lpad(id::text, 13, '0'), 'Standard', 'Publisher', 1, author, 'Powiesc' " +
+                "FROM (" + FILLER + ") f", TITLES);
+
+        insertBook(PRZEDWIOSNIE, "Przedwiośnie", "Stefan Żeromski");
+        insertBook(OGNIEM_I_MIECZEM, "Ogniem i mieczem", "Henryk Sienkiewicz");
+        insertBook(CHLOPI, "Chłopi", "Władysław Reymont");
+        foldingRepository.refresh(List.of(PRZEDWIOSNIE, OGNIEM_I_MIECZEM, CHLOPI));
+
+        itemViewRepository.refreshMissing();
+        jdbcTemplate.execute("ANALYZE library_items");
+        jdbcTemplate.execute("ANALYZE books");
+        jdbcTemplate.execute("ANALYZE catalog_item_view");
+    }
+
+    private void insertBook(long id, String title, String author) {
+        jdbcTemplate.update("INSERT INTO library_items (id, title, item_type, is_bestseller, created_at) " +
+                "VALUES (?, ?, 'BOOK', false, now())", id, title);
+        jdbcTemplate.update("INSERT INTO books (id, page_count, isbn, paper_type, publisher, shelf_number, author, genre) " +
+                "VALUES (?, 300, ?, 'Standard', 'Publisher', 1, ?, 'Powiesc')", id, String.valueOf(id), author);
+    }
+}
@@ -0,0 +1,132 @@
+package org.pollub.catalog.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.pollub.catalog.client.BranchServiceClient;
+import org.pollub.catalog.client.ReservationServiceClient;
+import org.pollub.common.web.ResourceVersions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency and allocation of the paged status/branch listings as branch_inventory grows from 10k to 1M copies.
+ * Opt-in: {@code mvn test -Dbenchmark.url=jdbc:postgresql://localhost:5432/scratch}. Point it at an empty
+ * scratch database; the seeded rows are rolled back when the test ends.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=update")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfSystemProperty(named = Benchmarks.URL_PROPERTY, matches = ".+")
+@Slf4j
+class InventoryListingBenchmarkTest {
+
+    private static final int COPIES_PER_ITEM = 4;
+    private static final int BRANCHES = 20;
+    private static final int SMALL_COPIES = 10_000;
+    private static final int LARGE_COPIES = 1_000_000;
+    private static final int PAGE_SIZE = 50;
+
+    @SpringBootConfiguration
+    @EntityScan("org.pollub.catalog.model")
+    @EnableJpaRepositories("org.pollub.catalog.repository")
+    @Import({ItemDtoAssembler.class, CatalogService.class, BranchInventoryService.class})
+    static class Config {
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty(Benchmarks.URL_PROPERTY));
+        registry.add("spring.datasource.username", () -> System.getProperty(Benchmarks.USERNAME_PROPERTY, "postgres"));
+        registry.add("spring.datasource.password", () -> System.getProperty(Benchmarks.PASSWORD_PROPERTY, "postgres"));
+    }
+
+    @MockBean
+    private ReservationServiceClient reservationServiceClient;
+    @MockBean
+    private BranchServiceClient branchServiceClient;
+    @MockBean
+    private ICatalogSearchService catalogSearchService;
+    @MockBean
+    private IAvailabilityIndexService availabilityIndex;
+    @MockBean
+    private ICatalogSnapshotService catalogSnapshot;
+    @MockBean
+    private ResourceVersions resourceVersions;
+    @MockBean
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ICatalogService catalogService;
+
+    @Test
+    void pagedListingsStayFlatFromTenThousandToOneMillionCopies() {
+        seed(0, SMALL_COPIES);
+        Benchmarks.Result availableSmall = Benchmarks.measure(() -> listPage(catalogService::findAvailable));
+        Benchmarks.Result rentedSmall = Benchmarks.measure(() -> listPage(catalogService::findRented));
+        Benchmarks.Result branchSmall = Benchmarks.measure(
+                () -> listPage((page, size) -> catalogService.findByBranchId(1L, page, size)));
+
+        seed(SMALL_COPIES, LARGE_COPIES);
+        Benchmarks.Result availableLarge = Benchmarks.measure(() -> listPage(catalogService::findAvailable));
+        Benchmarks.Result rentedLarge = Benchmarks.measure(() -> listPage(catalogService::findRented));
+        Benchmarks.Result branchLarge = Benchmarks.measure(
+                () -> listPage((page, size) -> catalogService.findByBranchId(1L, page, size)));
+
+        log.info("/available  {} copies: {} | {} copies: {}", SMALL_COPIES, availableSmall, LARGE_COPIES, availableLarge);
+        log.info("/rented     {} copies: {} | {} copies: {}", SMALL_COPIES, rentedSmall, LARGE_COPIES, rentedLarge);
+        log.info("/branch/1   {} copies: {} | {} copies: {}", SMALL_COPIES, branchSmall, LARGE_COPIES, branchLarge);
+
+        assertFlat(availableSmall, availableLarge);
+        assertFlat(rentedSmall, rentedLarge);
+        assertFlat(branchSmall, branchLarge);
+    }
+
+    private void listPage(PageLister lister) {
+        // The same page at both sizes, so both runs read to the same depth
+        assertThat(lister.list(2, PAGE_SIZE)).hasSize(PAGE_SIZE);
+    }
+
+    private static void assertFlat(Benchmarks.Result small, Benchmarks.Result large) {
+        // A hundredfold table must not cost anywhere near a hundredfold; the slack absorbs timer noise
+        assertThat(large.nanos()).isLessThan(small.nanos() * 4 + 2_000_000);
+        assertThat(large.bytes()).isLessThan(small.bytes() * 2 + 64 * 1024);
+    }
+
+    /**
+     * Adds copies {@code from + 1 .. to}: {@value #COPIES_PER_ITEM} per item, spread over the branches,
+     * every third one rented.
+     */
+    private void seed(int from, int to) {
+        jdbcTemplate.update("INSERT INTO catalog_item_view (id, item_type, title, is_bestseller) " +
+                        "SELECT g, 'BOOK', 'Book ' || g, false FROM generate_series(?, ?) g",
+                from / COPIES_PER_ITEM + 1, to / COPIES_PER_ITEM);
+        jdbcTemplate.update("INSERT INTO branch_inventory (item_id, branch_id, status, rent_extended) " +
+                        "SELECT (g - 1) / ? + 1, g % ? + 1, " +
+                        "CASE WHEN g % 3 = 0 THEN 'RENTED' ELSE 'AVAILABLE' END, false " +
+                        "FROM generate_series(?, ?) g",
+                COPIES_PER_ITEM, BRANCHES, from + 1, to);
+        jdbcTemplate.execute("ANALYZE catalog_item_view");
+        jdbcTemplate.execute("ANALYZE branch_inventory");
+    }
+
+    @FunctionalInterface
+    private interface PageLister {
+        List<?> list(int page, int size);
+    }
+}
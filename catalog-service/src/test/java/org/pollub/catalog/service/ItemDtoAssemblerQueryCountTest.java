@@ -0,0 +1,126 @@
+package org.pollub.catalog.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pollub.catalog.client.BranchServiceClient;
+import org.pollub.catalog.client.ReservationServiceClient;
+import org.pollub.catalog.model.BranchInventory;
+import org.pollub.catalog.model.BranchStock;
+import org.pollub.catalog.model.CatalogItemView;
+import org.pollub.catalog.model.CopyStatus;
+import org.pollub.catalog.model.ItemType;
+import org.pollub.common.dto.ItemDto;
+import org.pollub.common.web.ResourceVersions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the batched DTO assembly of item lists: the number of SQL statements must not grow with the list.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ItemDtoAssemblerQueryCountTest {
+
+    private static final int ITEMS = 500;
+    private static final long BRANCH_ID = 1L;
+    private static final long USER_ID = 7L;
+
+    @SpringBootConfiguration
+    @EntityScan("org.pollub.catalog.model")
+    @EnableJpaRepositories("org.pollub.catalog.repository")
+    @Import({ItemDtoAssembler.class, CatalogService.class, BranchInventoryService.class})
+    static class Config {
+    }
+
+    @MockBean
+    private ReservationServiceClient reservationServiceClient;
+    @MockBean
+    private BranchServiceClient branchServiceClient;
+    @MockBean
+    private ICatalogSearchService catalogSearchService;
+    @MockBean
+    private IAvailabilityIndexService availabilityIndex;
+    @MockBean
+    private ICatalogSnapshotService catalogSnapshot;
+    @MockBean
+    private ResourceVersions resourceVersions;
+    @MockBean
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ItemDtoAssembler itemDtoAssembler;
+
+    private final List<CatalogItemView> items = new ArrayList<>();
+    private final List<BranchInventory> rentedCopies = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= ITEMS; id++) {
+            CatalogItemView item = CatalogItemView.builder()
+                    .id(id)
+                    .itemType(ItemType.BOOK)
+                    .title("Book " + id)
+                    .isBestseller(false)
+                    .build();
+            items.add(entityManager.persist(item));
+            entityManager.persist(BranchStock.builder()
+                    .itemId(id)
+                    .branchId(BRANCH_ID)
+                    .totalCount(2)
+                    .availableCount(id % 2 == 0 ? 1 : 0)
+                    .build());
+            rentedCopies.add(entityManager.persist(BranchInventory.builder()
+                    .itemId(id)
+                    .branchId(BRANCH_ID)
+                    .status(CopyStatus.RENTED)
+                    .rentedByUserId(USER_ID)
+                    .build()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void itemListResolvesAvailabilityInOneQuery() {
+        List<ItemDto> dtos = itemDtoAssembler.toDtos(items);
+
+        assertThat(dtos).hasSize(ITEMS);
+        assertThat(dtos.get(1).getStatus()).isEqualTo("AVAILABLE");
+        assertThat(dtos.get(0).getStatus()).isEqualTo("UNAVAILABLE");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rentalListLoadsItemsAndAvailabilityInTwoQueries() {
+        List<ItemDto> dtos = itemDtoAssembler.toRentalDtos(rentedCopies);
+
+        assertThat(dtos).hasSize(ITEMS);
+        assertThat(dtos).allMatch(dto -> BRANCH_ID == dto.getRentedFromBranchId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+}
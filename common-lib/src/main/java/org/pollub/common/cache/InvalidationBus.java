@@ -0,0 +1,273 @@
+package org.pollub.common.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Invalidates in-process caches across the replicas of a service through PostgreSQL LISTEN/NOTIFY,
+ * so no infrastructure beyond the service's database is needed.
+ * <p>
+ * {@link #publish} sends a (cache, key) event with pg_notify on the current transaction's own connection,
+ * just before it commits. PostgreSQL delivers it when the transaction commits and drops it on rollback,
+ * so other instances never reload data older than the event, and no second pooled connection is taken
+ * while the transaction still holds its own. Events published outside a transaction, or after it has
+ * committed, are sent on a direct connection of the bus.
+ * The bus opens its connections from a data source outside the application's pool: one for sending and
+ * one that LISTENs on the channel, so a LISTEN never pins a pooled connection. Events are handed to the
+ * subscribers of their cache on a single listener thread, typically within milliseconds. Events an
+ * instance sent itself are skipped, as writers invalidate their own caches directly.
+ * Delivery is at most once: while the listening connection is down events are lost, so after every
+ * (re)connect each subscriber is told to drop its whole cache.
+ * <p>
+ * Besides invalidations, the bus carries application events ({@link #publishEvent}): a topic and a
+ * payload, sent the same way and handed to the topic's {@link #subscribeEvents event subscribers}.
+ * Event subscribers are not called on reconnect, as there is nothing to replay.
+ */
+@Slf4j
+public class InvalidationBus implements AutoCloseable {
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z][a-z0-9_]*");
+    // Cache names are sent in a space-separated payload
+    private static final Pattern CACHE_NAME = Pattern.compile("\\S+");
+    private static final String SEPARATOR = " ";
+    // Kind of a message, after the origin
+    private static final String INVALIDATION = "i";
+    private static final String EVENT = "e";
+    private static final int POLL_TIMEOUT_MILLIS = 500;
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+
+    private final DataSource dataSource;
+    private final DataSource directDataSource;
+    private final String channel;
+    private final String origin = UUID.randomUUID().toString();
+    private final Map<String, List<Consumer<String>>> subscribers = new ConcurrentHashMap<>();
+    private final Map<String, List<Consumer<String>>> eventSubscribers = new ConcurrentHashMap<>();
+    private final Thread listener;
+    private final Object senderLock = new Object();
+    private Connection sender;
+    private volatile boolean running = true;
+
+    /**
+     * @param dataSource       the application's data source, whose transactions carry published events
+     * @param directDataSource unpooled data source of the same database, for the bus's own connections
+     */
+    public InvalidationBus(DataSource dataSource, DataSource directDataSource, String channel) {
+        this.dataSource = dataSource;
+        this.directDataSource = directDataSource;
+        this.channel = checkName(CHANNEL_NAME, channel);
+        this.listener = Thread.ofPlatform()
+                .name("invalidation-bus-" + channel)
+                .daemon()
+                .start(this::listen);
+    }
+
+    /**
+     * Register a subscriber for events of a cache. It is called with the invalidated key,
+     * or with null when the whole cache must be dropped.
+     */
+    public void subscribe(String cache, Consumer<String> subscriber) {
+        subscribers.computeIfAbsent(checkName(CACHE_NAME, cache), name -> new CopyOnWriteArrayList<>()).add(subscriber);
+    }
+
+    /**
+     * Register a subscriber for the events of a topic. It is called with each event's payload.
+     */
+    public void subscribeEvents(String topic, Consumer<String> subscriber) {
+        eventSubscribers.computeIfAbsent(checkName(CACHE_NAME, topic), name -> new CopyOnWriteArrayList<>()).add(subscriber);
+    }
+
+    /**
+     * Drop a whole cache on the other instances, when the current transaction commits
+     * (immediately if there is none).
+     */
+    public void publish(String cache) {
+        send(INVALIDATION, checkName(CACHE_NAME, cache), null);
+    }
+
+    /**
+     * Drop one key of a cache on the other instances, when the current transaction commits
+     * (immediately if there is none).
+     */
+    public void publish(String cache, String key) {
+        send(INVALIDATION, checkName(CACHE_NAME, cache), key);
+    }
+
+    /**
+     * Send an event to the other instances, when the current transaction commits (immediately if there
+     * is none). Published while the transaction is still open, it travels on the transaction's own
+     * connection; the payload must stay below PostgreSQL's 8000 byte notification limit.
+     */
+    public void publishEvent(String topic, String payload) {
+        send(EVENT, checkName(CACHE_NAME, topic), Objects.requireNonNull(payload, "payload"));
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        listener.interrupt();
+        synchronized (senderLock) {
+            closeSender();
+        }
+    }
+
+    private void send(String kind, String name, String data) {
+        String payload = origin + SEPARATOR + kind + SEPARATOR + name + (data != null ? SEPARATOR + data : "");
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean sent;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    sent = notifyInTransaction(payload);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    // Registered from an afterCommit callback, after beforeCommit had already run
+                    if (status == STATUS_COMMITTED && !sent) {
+                        notifyDirect(payload);
+                    }
+                }
+            });
+        } else {
+            notifyDirect(payload);
+        }
+    }
+
+    private boolean notifyInTransaction(String payload) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            sendOn(connection, payload);
+            return true;
+        } catch (SQLException e) {
+            log.warn("Could not publish invalidation on {}: {}", channel, e.getMessage());
+            return false;
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private void notifyDirect(String payload) {
+        synchronized (senderLock) {
+            try {
+                if (sender == null || sender.isClosed()) {
+                    sender = directDataSource.getConnection();
+                    sender.setAutoCommit(true);
+                }
+                sendOn(sender, payload);
+            } catch (SQLException e) {
+                // Other instances still pick the change up at their next refresh
+                log.warn("Could not publish invalidation on {}: {}", channel, e.getMessage());
+                closeSender();
+            }
+        }
+    }
+
+    private void sendOn(Connection connection, String payload) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            statement.setString(1, channel);
+            statement.setString(2, payload);
+            statement.execute();
+        }
+    }
+
+    private void closeSender() {
+        if (sender == null) {
+            return;
+        }
+        try {
+            sender.close();
+        } catch (SQLException e) {
+            log.debug("Could not close invalidation sender on {}: {}", channel, e.getMessage());
+        }
+        sender = null;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = directDataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                // Events sent while this instance was not listening are lost
+                dropAll();
+                receive(connection.unwrap(PGConnection.class));
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Invalidation bus {} lost its connection, reconnecting: {}", channel, e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(PGConnection connection) throws SQLException {
+        while (running) {
+            PGNotification[] notifications = connection.getNotifications(POLL_TIMEOUT_MILLIS);
+            if (notifications == null) {
+                continue;
+            }
+            for (PGNotification notification : notifications) {
+                deliver(notification.getParameter());
+            }
+        }
+    }
+
+    private void deliver(String payload) {
+        String[] parts = payload.split(SEPARATOR, 4);
+        if (parts.length < 3 || parts[0].equals(origin)) {
+            return;
+        }
+        String data = parts.length == 4 ? parts[3] : null;
+        if (INVALIDATION.equals(parts[1])) {
+            notifySubscribers(subscribers, parts[2], data);
+        } else if (EVENT.equals(parts[1]) && data != null) {
+            notifySubscribers(eventSubscribers, parts[2], data);
+        }
+    }
+
+    private void dropAll() {
+        subscribers.keySet().forEach(cache -> notifySubscribers(subscribers, cache, null));
+    }
+
+    private void notifySubscribers(Map<String, List<Consumer<String>>> byName, String name, String data) {
+        for (Consumer<String> subscriber : byName.getOrDefault(name, List.of())) {
+            try {
+                subscriber.accept(data);
+            } catch (RuntimeException e) {
+                log.warn("Delivery of {} failed: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    private static String checkName(Pattern pattern, String name) {
+        if (name == null || !pattern.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid channel or cache name: " + name);
+        }
+        return name;
+    }
+}
@@ -0,0 +1,7 @@
+package org.pollub.common.exception;
+
+public class BookAlreadyExistsException extends RuntimeException {
+    public BookAlreadyExistsException(String isbn) {
+        super("Book already exists with ISBN: " + isbn);
+    }
+}
@@ -0,0 +1,11 @@
+package org.pollub.common.exception;
+
+/**
+ * Exception thrown when the availability feed already holds its maximum number of subscribers.
+ */
+public class FeedCapacityException extends RuntimeException {
+
+    public FeedCapacityException(String message) {
+        super(message);
+    }
+}
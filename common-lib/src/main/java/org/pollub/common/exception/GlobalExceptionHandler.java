@@ -56,6 +56,33 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    @ExceptionHandler(BookAlreadyExistsException.class)
+    public ResponseEntity<Map<String, Object>> handleBookAlreadyExists(BookAlreadyExistsException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(buildResponse(
+                        HttpStatus.CONFLICT,
+                        ex.getMessage()
+                ));
+    }
+
+    @ExceptionHandler(InventoryConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleInventoryConflict(InventoryConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(buildResponse(
+                        HttpStatus.CONFLICT,
+                        ex.getMessage()
+                ));
+    }
+
+    @ExceptionHandler(FeedCapacityException.class)
+    public ResponseEntity<Map<String, Object>> handleFeedCapacity(FeedCapacityException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(buildResponse(
+                        HttpStatus.SERVICE_UNAVAILABLE,
+                        ex.getMessage()
+                ));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidationErrors(
             MethodArgumentNotValidException ex
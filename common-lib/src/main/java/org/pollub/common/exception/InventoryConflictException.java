@@ -0,0 +1,12 @@
+package org.pollub.common.exception;
+
+/**
+ * Exception thrown when an inventory transition cannot be applied: the copy keeps changing concurrently,
+ * or the user it should apply to holds no matching copy.
+ */
+public class InventoryConflictException extends RuntimeException {
+
+    public InventoryConflictException(String message) {
+        super(message);
+    }
+}
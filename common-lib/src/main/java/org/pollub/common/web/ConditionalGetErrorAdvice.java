@@ -0,0 +1,47 @@
+package org.pollub.common.web;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Keeps error responses of conditional GET paths out of shared caches.
+ * ConditionalGetInterceptor tags a response before its handler runs; when the body written turns out
+ * to be an error, e.g. a 404 returned by the handler or an exception mapped by GlobalExceptionHandler,
+ * the ETag is removed and Cache-Control replaced by no-store, so it is never cached under the current tag.
+ */
+@RestControllerAdvice
+public class ConditionalGetErrorAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && response instanceof ServletServerHttpResponse servletResponse
+                && servletRequest.getServletRequest().getAttribute(ConditionalGetInterceptor.ETAG_ATTRIBUTE) != null) {
+            // The status is already set here, the headers are not written yet
+            HttpServletResponse raw = servletResponse.getServletResponse();
+            if (!HttpStatusCode.valueOf(raw.getStatus()).is2xxSuccessful()) {
+                raw.setHeader(HttpHeaders.ETAG, null);
+                raw.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+            }
+        }
+        return body;
+    }
+}
@@ -0,0 +1,71 @@
+package org.pollub.common.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Answers GET requests for versioned resources with an ETag and Cache-Control.
+ * When If-None-Match carries the current ETag, replies 304 before the handler runs,
+ * so an unchanged response costs no database work.
+ * Register it for the paths whose responses depend only on the given resources.
+ * A path can have several representations chosen by Accept (JSON and NDJSON lists), so responses
+ * vary by Accept, and a handler that declares what it produces gets its media type in the tag,
+ * keeping the strong ETag unique per representation.
+ * The headers are set before the handler runs; ConditionalGetErrorAdvice withdraws them again
+ * when the handler answers with anything but a success.
+ */
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    /**
+     * Request attribute holding the ETag the response was tagged with.
+     */
+    public static final String ETAG_ATTRIBUTE = ConditionalGetInterceptor.class.getName() + ".etag";
+
+    private final ResourceVersions resourceVersions;
+    private final List<String> resources;
+    private final CacheControl cacheControl;
+
+    public ConditionalGetInterceptor(ResourceVersions resourceVersions, CacheControl cacheControl, String... resources) {
+        this.resourceVersions = resourceVersions;
+        this.cacheControl = cacheControl;
+        this.resources = List.of(resources);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return true;
+        }
+        // Read before the handler loads data, so the tag can only be older than the body, never newer
+        String etag = withVariant(resourceVersions.etag(resources), request);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        request.setAttribute(ETAG_ATTRIBUTE, etag);
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    /**
+     * Append the media types the matched handler produces, e.g. "catalog.12-application/x-ndjson".
+     */
+    @SuppressWarnings("unchecked")
+    private static String withVariant(String etag, HttpServletRequest request) {
+        Set<MediaType> produced = (Set<MediaType>) request.getAttribute(HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE);
+        if (produced == null || produced.isEmpty()) {
+            return etag;
+        }
+        StringBuilder tag = new StringBuilder(etag.substring(0, etag.length() - 1));
+        for (MediaType mediaType : produced) {
+            tag.append('-').append(mediaType.getType()).append('/').append(mediaType.getSubtype());
+        }
+        return tag.append('"').toString();
+    }
+}
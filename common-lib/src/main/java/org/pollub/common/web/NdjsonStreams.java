@@ -0,0 +1,58 @@
+package org.pollub.common.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Writes list results as newline-delimited JSON (application/x-ndjson), one row per line,
+ * while they are produced instead of after the whole list is built.
+ * The producer pushes rows into the sink it is given, typically from a Spring Data Stream read
+ * with a bounded fetch size inside a transaction, so memory stays flat however large the table
+ * is, and the first rows reach the client before the query has finished.
+ * Map a second handler with produces = application/x-ndjson next to the JSON array one;
+ * clients opt in with the Accept header.
+ */
+public final class NdjsonStreams {
+
+    private static final byte NEWLINE = '\n';
+    // Rows between flushes; the first row is flushed immediately
+    private static final int FLUSH_EVERY = 256;
+
+    private NdjsonStreams() {
+    }
+
+    public static <T> void write(HttpServletResponse response, ObjectMapper objectMapper,
+                                 Consumer<Consumer<T>> producer) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        ObjectWriter writer = objectMapper.writer();
+        OutputStream out = response.getOutputStream();
+        int[] written = {0};
+        try {
+            producer.accept(row -> {
+                try {
+                    out.write(writer.writeValueAsBytes(row));
+                    out.write(NEWLINE);
+                    if (written[0]++ % FLUSH_EVERY == 0) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; once rows are flushed the status is sent and only the stream ends
+            throw e.getCause();
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,172 @@
+package org.pollub.common.web;
+
+import lombok.extern.slf4j.Slf4j;
+import org.pollub.common.cache.InvalidationBus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Version counters of cacheable resources, used as HTTP ETags.
+ * <p>
+ * Each resource is backed by a database sequence so all replicas of a service agree on it and bumping
+ * never takes a row lock. Writers call {@link #bump}; the sequence is advanced after the surrounding
+ * transaction commits, so a version is never visible before the data it stands for.
+ * Readers get the last value known to this instance, refreshed from the database at most once per
+ * refresh interval, so conditional requests are answered without a query per request. Changes made
+ * through another replica are picked up within that interval, or within milliseconds when the
+ * replicas share an {@link InvalidationBus}.
+ * <p>
+ * Responses served from an in-memory read model that follows the database asynchronously can be tagged
+ * with the position that model has applied, registered with {@link #registerLocal}, so a body built from
+ * the model is never cached under a tag that claims the model has caught up.
+ */
+@Slf4j
+public class ResourceVersions {
+
+    private static final Pattern RESOURCE_NAME = Pattern.compile("[a-z][a-z0-9_]*");
+    private static final String BUS_CACHE = "resource_versions";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long refreshIntervalNanos;
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> localVersions = new ConcurrentHashMap<>();
+    private final InvalidationBus bus;
+
+    public ResourceVersions(JdbcTemplate jdbcTemplate, Duration refreshInterval, Collection<String> resources) {
+        this(jdbcTemplate, refreshInterval, resources, null);
+    }
+
+    /**
+     * @param bus announces bumps to the other replicas, which then re-read the version on their next request
+     */
+    public ResourceVersions(JdbcTemplate jdbcTemplate, Duration refreshInterval, Collection<String> resources,
+                            InvalidationBus bus) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bus = bus;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+        for (String resource : resources) {
+            if (!RESOURCE_NAME.matcher(resource).matches()) {
+                throw new IllegalArgumentException("Invalid resource name: " + resource);
+            }
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequenceName(resource));
+            snapshots.put(resource, new Snapshot(readVersion(resource), System.nanoTime()));
+        }
+        if (bus != null) {
+            bus.subscribe(BUS_CACHE, this::expire);
+        }
+    }
+
+    /**
+     * Register a resource whose version is kept in memory by this instance, e.g. the change log
+     * position an index has applied. It is read on every request and cannot be bumped.
+     */
+    public void registerLocal(String resource, LongSupplier version) {
+        if (!RESOURCE_NAME.matcher(resource).matches() || snapshots.containsKey(resource)) {
+            throw new IllegalArgumentException("Invalid resource name: " + resource);
+        }
+        localVersions.put(resource, version);
+    }
+
+    /**
+     * Current version of a resource as known to this instance.
+     */
+    public long current(String resource) {
+        LongSupplier local = localVersions.get(resource);
+        if (local != null) {
+            return local.getAsLong();
+        }
+        Snapshot snapshot = snapshot(resource);
+        if (System.nanoTime() - snapshot.readAt() < refreshIntervalNanos) {
+            return snapshot.version();
+        }
+        try {
+            snapshot = new Snapshot(readVersion(resource), System.nanoTime());
+            snapshots.put(resource, snapshot);
+        } catch (Exception e) {
+            log.warn("Could not refresh version of {}: {}", resource, e.getMessage());
+        }
+        return snapshot.version();
+    }
+
+    /**
+     * Mark a resource as changed, after the current transaction commits (immediately if there is none).
+     */
+    public void bump(String resource) {
+        snapshot(resource);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    advance(resource);
+                }
+            });
+        } else {
+            advance(resource);
+        }
+    }
+
+    /**
+     * Strong ETag for a response built from the given resources, e.g. "catalog.12-inventory.40".
+     */
+    public String etag(Collection<String> resources) {
+        StringBuilder tag = new StringBuilder("\"");
+        for (String resource : resources) {
+            if (tag.length() > 1) {
+                tag.append('-');
+            }
+            tag.append(resource).append('.').append(current(resource));
+        }
+        return tag.append('"').toString();
+    }
+
+    private void advance(String resource) {
+        Long version = jdbcTemplate.queryForObject("SELECT nextval('" + sequenceName(resource) + "')", Long.class);
+        snapshots.merge(resource, new Snapshot(version, System.nanoTime()),
+                (old, fresh) -> fresh.version() > old.version() ? fresh : old);
+        if (bus != null) {
+            bus.publish(BUS_CACHE, resource);
+        }
+    }
+
+    /**
+     * Make the next current() of the resource, or of every resource when null, read the database.
+     */
+    private void expire(String resource) {
+        long stale = System.nanoTime() - refreshIntervalNanos;
+        if (resource == null) {
+            snapshots.replaceAll((name, snapshot) -> new Snapshot(snapshot.version(), stale));
+        } else {
+            snapshots.computeIfPresent(resource, (name, snapshot) -> new Snapshot(snapshot.version(), stale));
+        }
+    }
+
+    private Snapshot snapshot(String resource) {
+        Snapshot snapshot = snapshots.get(resource);
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Unknown resource: " + resource);
+        }
+        return snapshot;
+    }
+
+    private long readVersion(String resource) {
+        // A sequence nextval has never been called on reports last_value 1, the value nextval is about to return
+        Long version = jdbcTemplate.queryForObject(
+                "SELECT CASE WHEN is_called THEN last_value ELSE 0 END FROM " + sequenceName(resource), Long.class);
+        return version != null ? version : 0;
+    }
+
+    private static String sequenceName(String resource) {
+        return "resource_version_" + resource;
+    }
+
+    private record Snapshot(long version, long readAt) {
+    }
+}
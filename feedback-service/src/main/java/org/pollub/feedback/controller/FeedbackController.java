@@ -1,8 +1,11 @@
 package org.pollub.feedback.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.pollub.common.web.NdjsonStreams;
 import org.pollub.feedback.model.Feedback;
 import org.pollub.feedback.model.FeedbackStatus;
 import org.pollub.feedback.model.dto.FeedbackAdminDto;
@@ -11,12 +14,14 @@ import org.pollub.feedback.model.dto.FeedbackResponseDto;
 import org.pollub.feedback.service.IFeedbackService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.List;
@@ -28,6 +33,7 @@ import java.util.Set;
 public class FeedbackController {
 
     private final IFeedbackService feedbackService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Trusted proxy IP addresses. Only trust X-Forwarded-For from these IPs.
@@ -87,6 +93,19 @@ public class FeedbackController {
         return ResponseEntity.ok(dtos);
     }
 
+    /**
+     * Streaming variant of the feedback list, selected by Accept: application/x-ndjson - admin/librarian only.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public void streamAllFeedbacks(
+            @RequestParam(required = false) FeedbackStatus status,
+            HttpServletResponse response
+    ) throws IOException {
+        NdjsonStreams.<FeedbackAdminDto>write(response, objectMapper, sink -> feedbackService.forEachFeedback(
+                status, feedback -> sink.accept(FeedbackAdminDto.fromEntity(feedback))));
+    }
+
     /**
      * Update feedback status - admin/librarian only.
      * Returns sanitized DTO.
@@ -1,14 +1,18 @@
 package org.pollub.feedback.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.pollub.feedback.model.Feedback;
 import org.pollub.feedback.model.FeedbackStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface IFeedbackRepository extends JpaRepository<Feedback, Long> {
@@ -23,6 +27,26 @@ public interface IFeedbackRepository extends JpaRepository<Feedback, Long> {
      */
     List<Feedback> findAllByOrderByCreatedAtDesc();
 
+    /**
+     * Stream feedbacks by status, newest first, from a database cursor.
+     * Must be consumed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Feedback> streamByStatusOrderByCreatedAtDesc(FeedbackStatus status);
+
+    /**
+     * Stream all feedbacks, newest first, from a database cursor.
+     * Must be consumed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Feedback> streamAllByOrderByCreatedAtDesc();
+
     /**
      * Count submissions from a specific IP within a time window.
      * Used for rate limiting.
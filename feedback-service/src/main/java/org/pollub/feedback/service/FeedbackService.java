@@ -1,5 +1,6 @@
 package org.pollub.feedback.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.pollub.common.exception.ResourceNotFoundException;
@@ -14,6 +15,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -22,6 +25,7 @@ import java.util.List;
 public class FeedbackService implements IFeedbackService {
     
     private final IFeedbackRepository feedbackRepository;
+    private final EntityManager entityManager;
 
     /**
      * Maximum number of feedback submissions per IP within the rate limit window.
@@ -83,6 +87,19 @@ public class FeedbackService implements IFeedbackService {
         return feedbackRepository.findByStatusOrderByCreatedAtDesc(status);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachFeedback(FeedbackStatus status, Consumer<Feedback> action) {
+        try (Stream<Feedback> feedbacks = status != null
+                ? feedbackRepository.streamByStatusOrderByCreatedAtDesc(status)
+                : feedbackRepository.streamAllByOrderByCreatedAtDesc()) {
+            feedbacks.forEach(feedback -> {
+                action.accept(feedback);
+                entityManager.detach(feedback);
+            });
+        }
+    }
+
     @Override
     @Transactional
     public Feedback updateStatus(Long feedbackId, FeedbackStatus newStatus) {
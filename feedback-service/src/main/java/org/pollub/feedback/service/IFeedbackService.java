@@ -6,6 +6,7 @@ import org.pollub.feedback.model.FeedbackStatus;
 import org.pollub.feedback.model.dto.FeedbackRequestDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface IFeedbackService {
 
@@ -35,6 +36,12 @@ public interface IFeedbackService {
      */
     List<Feedback> getFeedbacksByStatus(FeedbackStatus status);
 
+    /**
+     * Pass feedbacks, optionally filtered by status, to the action one at a time, newest first,
+     * without loading them all into memory.
+     */
+    void forEachFeedback(FeedbackStatus status, Consumer<Feedback> action);
+
     /**
      * Update feedback status.
      */
@@ -1,6 +1,6 @@
 import { Injectable, inject } from '@angular/core';
 import { HttpClient, HttpErrorResponse } from '@angular/common/http';
-import { catchError, map, Observable, of, throwError } from 'rxjs';
+import { catchError, EMPTY, expand, map, Observable, of, reduce, throwError } from 'rxjs';
 import { SingleBook, RentRequest, RentalHistoryItem } from '../types';
 import { environment } from '../../environments/environment';
 
@@ -11,13 +11,14 @@ export class LoanService {
   private http = inject(HttpClient);
   private API_URL_CATALOG = environment.apiUrl + 'items';
   private API_URL_RENTALS = environment.apiUrl + 'rentals';
+  private PAGE_SIZE = 200;
 
   getUserLoans(userId: number): Observable<SingleBook[]> {
     return this.http.get<SingleBook[]>(`${this.API_URL_CATALOG}/user/${userId}`);
   }
 
   getAvailableItems(): Observable<SingleBook[]> {
-    return this.http.get<SingleBook[]>(`${this.API_URL_CATALOG}/available`);
+    return this.getAllPages(`${this.API_URL_CATALOG}/available`);
   }
 
   getAvailableItemsByBranch(branchId: number): Observable<SingleBook[]> {
@@ -25,7 +26,22 @@ export class LoanService {
   }
 
   getAllRentedItems(): Observable<SingleBook[]> {
-    return this.http.get<SingleBook[]>(`${this.API_URL_CATALOG}/rented`);
+    return this.getAllPages(`${this.API_URL_CATALOG}/rented`);
+  }
+
+  // The item list endpoints are paged; keep reading until a page comes back short
+  private getAllPages(url: string): Observable<SingleBook[]> {
+    const fetchPage = (page: number) =>
+      this.http
+        .get<SingleBook[]>(url, {
+          params: { page: page.toString(), size: this.PAGE_SIZE.toString() },
+        })
+        .pipe(map((items) => ({ page, items })));
+
+    return fetchPage(0).pipe(
+      expand(({ page, items }) => (items.length < this.PAGE_SIZE ? EMPTY : fetchPage(page + 1))),
+      reduce((all, { items }) => all.concat(items), [] as SingleBook[])
+    );
   }
 
   rentItem(itemId: number, userId: number, branchId: number): Observable<SingleBook> {
@@ -56,12 +56,13 @@ public class CatalogServiceClient {
      * Mark an item as returned at a specific branch.
      * @param itemId the item ID
      * @param branchId the branch where the item was rented from
+     * @param userId the user returning the item, selects their copy when the branch has several
      */
-    public void markAsReturned(Long itemId, Long branchId) {
+    public void markAsReturned(Long itemId, Long branchId, Long userId) {
         try {
             webClientBuilder.build()
                     .put()
-                    .uri(catalogServiceUrl + "/api/items/{id}/return?branchId={branchId}", itemId, branchId)
+                    .uri(catalogServiceUrl + "/api/items/{id}/return?branchId={branchId}&userId={userId}", itemId, branchId, userId)
                     .retrieve()
                     .bodyToMono(Void.class)
                     .block();
@@ -75,13 +76,14 @@ public class CatalogServiceClient {
      *
      * @param itemId   the item ID
      * @param branchId the branch where the item was rented from
+     * @param userId   the user who rented the item, selects their copy when the branch has several
      * @param days     number of days to extend
      */
-    public void extendRental(Long itemId, Long branchId, int days) {
+    public void extendRental(Long itemId, Long branchId, Long userId, int days) {
         try {
             webClientBuilder.build()
                     .put()
-                    .uri(catalogServiceUrl + "/api/items/{id}/extend?branchId={branchId}&days={days}", itemId, branchId, days)
+                    .uri(catalogServiceUrl + "/api/items/{id}/extend?branchId={branchId}&userId={userId}&days={days}", itemId, branchId, userId, days)
                     .retrieve()
                     .bodyToMono(Void.class)
                     .block();
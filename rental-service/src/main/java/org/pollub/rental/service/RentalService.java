@@ -82,7 +82,7 @@ public class RentalService implements IRentalService {
             throw e;
         }
 
-        catalogServiceClient.markAsReturned(itemId, branchId);
+        catalogServiceClient.markAsReturned(itemId, branchId, rentalHistory.getUserId());
 
     }
 
@@ -101,7 +101,7 @@ public class RentalService implements IRentalService {
             throw e;
         }
 
-        catalogServiceClient.extendRental(itemId, branchId, days);
+        catalogServiceClient.extendRental(itemId, branchId, rentalHistory.getUserId(), days);
 
     }
 
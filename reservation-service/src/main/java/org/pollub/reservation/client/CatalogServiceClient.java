@@ -55,14 +55,14 @@ public class CatalogServiceClient {
         }
     }
 
-    public void updateStatus(Long itemId, Long branchId, String status) {
+    public void updateStatus(Long itemId, Long branchId, Long userId, String status) {
         try {
             webClientBuilder.baseUrl(catalogServiceUrl).build()
                     .put()
                     .uri(uriBuilder -> uriBuilder
                             .path("/api/items/{itemId}/inventory/{branchId}/status")
                             .build(itemId, branchId))
-                    .bodyValue(Map.of("status", status))
+                    .bodyValue(Map.of("status", status, "userId", userId))
                     .retrieve()
                     .bodyToMono(Void.class)
                     .block();
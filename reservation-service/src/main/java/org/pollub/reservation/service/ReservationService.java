@@ -116,6 +116,7 @@ public class ReservationService implements  IReservationService {
         catalogServiceClient.updateStatus(
                 reservation.getItemId(),
                 reservation.getBranchId(),
+                reservation.getUserId(),
                 "AVAILABLE"
         );
 
@@ -152,6 +153,7 @@ public class ReservationService implements  IReservationService {
             catalogServiceClient.updateStatus(
                     reservation.getItemId(),
                     reservation.getBranchId(),
+                    reservation.getUserId(),
                     "AVAILABLE"
             );
 
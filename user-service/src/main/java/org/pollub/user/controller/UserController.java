@@ -1,20 +1,25 @@
 package org.pollub.user.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.pollub.common.dto.BranchDto;
 import org.pollub.common.dto.UserAddressDto;
 import org.pollub.common.dto.UserDto;
+import org.pollub.common.web.NdjsonStreams;
 import org.pollub.user.dto.*;
 import org.pollub.user.model.Role;
 import org.pollub.user.model.User;
 import org.pollub.user.model.UserAddress;
 import org.pollub.user.service.UserService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -25,6 +30,7 @@ import java.util.stream.Collectors;
 public class UserController {
     
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public ResponseEntity<List<UserDto>> getAllUsers() {
@@ -34,6 +40,15 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
 
+    /**
+     * Streaming variant of the user list, selected by Accept: application/x-ndjson.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamAllUsers(HttpServletResponse response) throws IOException {
+        NdjsonStreams.<UserDto>write(response, objectMapper,
+                sink -> userService.forEachUser(user -> sink.accept(toDto(user))));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<UserDto> getUserById(@PathVariable Long id) {
         User user = userService.findById(id);
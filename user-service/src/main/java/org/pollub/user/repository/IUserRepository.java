@@ -1,14 +1,18 @@
 package org.pollub.user.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.pollub.user.model.User;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface IUserRepository extends JpaRepository<User, Long> {
@@ -29,4 +33,13 @@ public interface IUserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmailAndPesel(String email, String pesel);
 
     Optional<User> findByPesel(String pesel);
+
+    // All users in id order, fetched from a database cursor; must be consumed inside a transaction.
+    // Roles are fetched in the same query instead of one select per user.
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.roles ORDER BY u.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<User> streamAllWithRoles();
 }
@@ -7,6 +7,7 @@ import org.pollub.user.model.Role;
 import org.pollub.user.model.User;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.Set;
 
 public interface IUserService {
@@ -18,6 +19,7 @@ public interface IUserService {
     User findByEmail(String email);
 
     List<User> findAll();
+    void forEachUser(Consumer<User> action);
 
     List<User> searchUsers(String query);
 
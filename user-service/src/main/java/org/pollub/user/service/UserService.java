@@ -1,5 +1,6 @@
 package org.pollub.user.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.pollub.common.dto.BranchDto;
@@ -26,6 +27,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -37,6 +40,7 @@ public class UserService implements  IUserService {
     private final UserFactory userFactory;
     private final UserValidator userValidator;
     private final BranchServiceClient branchServiceClient;
+    private final EntityManager entityManager;
 
     public User findById(Long id) {
         return userRepository.findById(id)
@@ -57,6 +61,16 @@ public class UserService implements  IUserService {
         return userRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public void forEachUser(Consumer<User> action) {
+        try (Stream<User> users = userRepository.streamAllWithRoles()) {
+            users.forEach(user -> {
+                action.accept(user);
+                entityManager.detach(user);
+            });
+        }
+    }
+
     public List<User> searchUsers(String query) {
         if (query == null || query.trim().isEmpty()) {
             return List.of();